@@ -0,0 +1,87 @@
+package com.example.perf;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Credit storm: repeatedly flips the credit status of N clients, either one request per client
+ * ({@code /clients/simulate/credit-update}) or in bulk requests ({@code /clients/simulate/credit-updates}).
+ *
+ * <p>Clients should be subscribed first (see {@link SubscribeSimulation}) so that the updates reach
+ * existing ClientWorkflows. Compare request throughput of both modes and watch
+ * {@code GET /metrics/credit-status-conflation} for how many updates were coalesced.
+ *
+ * <p>Run with:
+ * <pre>mvn gatling:test -pl performance-tests -Dgatling.simulationClass=com.example.perf.CreditStormSimulation</pre>
+ */
+public class CreditStormSimulation extends Simulation {
+
+  private static final int USERS = Integer.getInteger("USERS", 1000);
+  private static final int ROUNDS = Integer.getInteger("ROUNDS", 10);
+  private static final int BULK_SIZE = Integer.getInteger("BULK_SIZE", 0);
+  private static final String TENANT = System.getProperty("TENANT", "");
+  private static final String CLIENT_TENANT = System.getProperty("CLIENT_TENANT", TENANT);
+  private static final String PRICING_BASE_URL = System.getProperty("PRICING_BASE_URL", "http://localhost:9001");
+
+  private static final String CLIENT_PREFIX = CLIENT_TENANT.isEmpty() ? "perf-client-" : CLIENT_TENANT + "-client-";
+
+  private final HttpProtocolBuilder pricingProtocol = http
+      .baseUrl(PRICING_BASE_URL)
+      .acceptHeader("application/json")
+      .contentTypeHeader("application/json");
+
+  private static String randomStatus() {
+    return ThreadLocalRandom.current().nextBoolean() ? "OK" : "FAIL";
+  }
+
+  private static String creditUpdate(long clientNumber) {
+    return "{\"clientId\": \"" + CLIENT_PREFIX + clientNumber + "\", \"status\": \"" + randomStatus() + "\"}";
+  }
+
+  // one user per client, each sending ROUNDS single updates
+  private final ScenarioBuilder singleScenario = scenario("Credit Storm (single)")
+      .repeat(ROUNDS).on(
+          exec(
+              http("credit-update")
+                  .post("/clients/simulate/credit-update")
+                  .body(StringBody(session -> creditUpdate(session.userId())))
+          )
+      );
+
+  // one user per BULK_SIZE clients, each sending ROUNDS bulk updates covering its slice
+  private final ScenarioBuilder bulkScenario = scenario("Credit Storm (bulk)")
+      .repeat(ROUNDS).on(
+          exec(
+              http("credit-updates")
+                  .post("/clients/simulate/credit-updates")
+                  .body(StringBody(session -> {
+                    var first = (session.userId() - 1) * BULK_SIZE + 1;
+                    var updates = IntStream.range(0, Math.min(BULK_SIZE, USERS - (int) first + 1))
+                        .mapToObj(i -> creditUpdate(first + i))
+                        .collect(Collectors.joining(", "));
+                    return "{\"updates\": [" + updates + "]}";
+                  }))
+          )
+      );
+
+  {
+    if (BULK_SIZE > 0) {
+      setUp(
+          bulkScenario.injectOpen(atOnceUsers((USERS + BULK_SIZE - 1) / BULK_SIZE))
+              .protocols(pricingProtocol)
+      );
+    } else {
+      setUp(
+          singleScenario.injectOpen(atOnceUsers(USERS))
+              .protocols(pricingProtocol)
+      );
+    }
+  }
+}
@@ -36,6 +36,7 @@ public class SimpleTradingSimulation extends Simulation {
   private static final int DURATION_SECS = Integer.getInteger("DURATION", 120);
   private static final int RATE_PER_SEC = Integer.getInteger("RATE_PER_SEC", 4);
   private static final int ACCEPT_INTERVAL_SECS = Integer.getInteger("ACCEPT_INTERVAL", 60);
+  private static final boolean FAST_PATH = Boolean.getBoolean("FAST_PATH");
   private static final String TENANT = System.getProperty("TENANT", "");
   private static final String CCY_PAIR = TENANT.isEmpty()
       ? System.getProperty("CCY_PAIR", "EURUSD")
@@ -151,7 +152,8 @@ public class SimpleTradingSimulation extends Simulation {
                           "{\"quotaId\":\"" + session.getString("quotaId") + "\","
                               + "\"clientId\":\"" + session.getString("tradeClientId") + "\","
                               + "\"side\":\"BUY\","
-                              + "\"quantity\":1000000}"))
+                              + "\"quantity\":1000000,"
+                              + "\"fastPath\":" + FAST_PATH + "}"))
               )
               // Poll trade status via GET (allow time for workflow to complete)
               .pause(2)
@@ -4,15 +4,25 @@ import akka.javasdk.DependencyProvider;
 import akka.javasdk.ServiceSetup;
 import akka.javasdk.annotations.Setup;
 import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timer.TimerScheduler;
 import akka.stream.Materializer;
+import com.example.api.QuotaRouter;
 import com.example.api.QuotaViewSingletonStreamQuery;
 import com.example.application.*;
 import com.example.client.CreditCheckService;
 import com.example.client.CreditCheckServiceStub;
 import com.example.client.FxRateService;
 import com.example.client.FxRateServiceStub;
+import com.example.domain.ForwardCurve;
+import com.example.domain.PublishPolicy;
+import com.example.domain.SpreadTable;
 import com.typesafe.config.Config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Setup
@@ -21,25 +31,186 @@ public class Bootstrap implements ServiceSetup {
   private final Config config;
   private final ComponentClient componentClient;
   private final Materializer materializer;
-  public Bootstrap(Config config,  ComponentClient componentClient,  Materializer materializer) {
+  private final TimerScheduler timerScheduler;
+  public Bootstrap(Config config,  ComponentClient componentClient,  Materializer materializer, TimerScheduler timerScheduler) {
     this.config = config;
     this.componentClient = componentClient;
     this.materializer = materializer;
+    this.timerScheduler = timerScheduler;
   }
   @Override
   public Set<Class<?>> disabledComponents() {
     System.out.println(config.getString("integration.test"));
-    if(config.getBoolean("integration.test"))
-      return Set.of();
-    else
-      return Set.of(FxRateConsumer.class, CreditCheckConsumer.class, PriceEntitySubscriptionsManagerConsumer.class);
+    var disabled = new HashSet<Class<?>>();
+    if(!config.getBoolean("integration.test"))
+      disabled.addAll(Set.of(FxRateConsumer.class, CreditCheckConsumer.class, PriceEntitySubscriptionsManagerConsumer.class));
+    if(!config.getBoolean("price-service.client-quota-view.enabled"))
+      disabled.add(ClientQuotaConsumer.class);
+    // compact events are quoted from the subscriber terms in PriceEntity as well
+    if(!subscriberTermsInEntity())
+      disabled.addAll(Set.of(PriceSubscriberTermsConsumer.class, SubscriberTermsResync.class));
+    return disabled;
+  }
+
+  private boolean subscriberTermsInEntity() {
+    return config.getBoolean("price-service.entity-quotas.enabled") || config.getBoolean("price-service.compact-price-rate-events");
+  }
+
+  @Override
+  public void onStartup() {
+    var quotaExpiry = quotaExpiry();
+    if (quotaExpiry.isEnabled()) {
+      // the timer is scheduled before the first sweep runs, so a failing sweep cannot leave the sweeper unscheduled;
+      // it is a named timer, so starting it from every node is harmless
+      timerScheduler.createSingleTimer(QuotaSweeper.TIMER_NAME, quotaExpiry.sweepInterval(),
+          componentClient.forTimedAction().method(QuotaSweeper::sweep).deferred());
+      componentClient.forTimedAction().method(QuotaSweeper::sweep).invokeAsync();
+    }
+    if (subscriberTermsInEntity()) {
+      // markups copied into the price entities were computed from the spread configuration of the node that copied them
+      timerScheduler.createSingleTimer(SubscriberTermsResync.TIMER_NAME, Duration.ZERO,
+          componentClient.forTimedAction().method(SubscriberTermsResync::resync).deferred(""));
+    }
+  }
+
+  private QuotaExpiry quotaExpiry() {
+    return new QuotaExpiry(
+        config.getDuration("price-service.quota-store.ttl"),
+        config.getDuration("price-service.quota-store.sweep-interval"));
+  }
+
+  // policy settings at the top level are the default, entries under "pairs" override them per ccyPair
+  private static PriceRateThrottle priceRateThrottle(Config policyConfig) {
+    var defaultPolicy = publishPolicy(policyConfig);
+    var pairsConfig = policyConfig.getConfig("pairs");
+    var policiesByCcyPair = new HashMap<String, PublishPolicy>();
+    for (var ccyPair : pairsConfig.root().keySet()) {
+      policiesByCcyPair.put(ccyPair, publishPolicy(pairsConfig.getConfig(ccyPair).withFallback(policyConfig)));
+    }
+    return new PriceRateThrottle(policyConfig.getBoolean("enabled"), defaultPolicy, policiesByCcyPair);
+  }
+
+  private static PublishPolicy publishPolicy(Config config) {
+    var maxRate = config.getDouble("max-rate-per-second");
+    return new PublishPolicy(
+        config.getDouble("min-move-pips"),
+        maxRate > 0 ? Duration.ofNanos((long) (1_000_000_000L / maxRate)) : Duration.ZERO,
+        config.getDuration("refresh-interval"));
+  }
+
+  // one bid and one ask forward point (in pips) per configured tenor, for each pair under "points"
+  private static Map<String, ForwardCurve> forwardCurves(Config curveConfig) {
+    var tenors = curveConfig.getStringList("tenors");
+    var pointsConfig = curveConfig.getConfig("points");
+    var curves = new HashMap<String, ForwardCurve>();
+    for (var ccyPair : pointsConfig.root().keySet()) {
+      var pairConfig = pointsConfig.getConfig(ccyPair);
+      curves.put(ccyPair, new ForwardCurve(ccyPair, tenors,
+          pairConfig.getDoubleList("bid").stream().mapToDouble(Double::doubleValue).toArray(),
+          pairConfig.getDoubleList("ask").stream().mapToDouble(Double::doubleValue).toArray()));
+    }
+    return curves;
+  }
+
+  // clients map to a (tier, size band) profile; "markups" holds pips per tier and band, "pairs" overrides it per ccyPair
+  private static ClientSpreadEngine clientSpreadEngine(Config spreadConfig) {
+    var tiers = spreadConfig.getStringList("tiers");
+    var bands = spreadConfig.getInt("size-bands");
+    var pairsConfig = spreadConfig.getConfig("pairs");
+    var tablesByCcyPair = new HashMap<String, SpreadTable>();
+    for (var ccyPair : pairsConfig.root().keySet()) {
+      tablesByCcyPair.put(ccyPair, spreadTable(ccyPair, tiers, bands, pairsConfig.getConfig(ccyPair)));
+    }
+    var clientsConfig = spreadConfig.getConfig("clients");
+    var profilesByClient = new HashMap<String, Integer>();
+    for (var clientId : clientsConfig.root().keySet()) {
+      profilesByClient.put(clientId, spreadProfile(tiers, bands, clientsConfig.getConfig(clientId)));
+    }
+    return new ClientSpreadEngine(
+        spreadTable("default", tiers, bands, spreadConfig.getConfig("markups")),
+        tablesByCcyPair,
+        profilesByClient,
+        spreadProfile(tiers, bands, spreadConfig.getConfig("default-profile")));
+  }
+
+  private static SpreadTable spreadTable(String ccyPair, List<String> tiers, int bands, Config markupConfig) {
+    var markupPips = tiers.stream()
+        .map(tier -> markupConfig.getDoubleList(tier).stream().mapToDouble(Double::doubleValue).toArray())
+        .toArray(double[][]::new);
+    return new SpreadTable(ccyPair, bands, markupPips);
+  }
+
+  private static int spreadProfile(List<String> tiers, int bands, Config profileConfig) {
+    var tier = tiers.indexOf(profileConfig.getString("tier"));
+    var band = profileConfig.getInt("band");
+    if (tier < 0 || band < 0 || band >= bands) {
+      throw new IllegalArgumentException("Unknown spread profile " + profileConfig.root().render());
+    }
+    return tier * bands + band;
   }
 
   @Override
   public DependencyProvider createDependencyProvider() {
     var creditCheckService = new CreditCheckServiceStub();
     var fxRateService = new FxRateServiceStub();
-    var quotaViewSingletonStream = new QuotaViewSingletonStreamQuery(componentClient, materializer);
+    var subscriberCreditCache = new SubscriberCreditCache(componentClient, materializer);
+    var subscriberSnapshotCache = new SubscriberSnapshotCache(componentClient);
+    var localQuotaBroadcast = new LocalQuotaBroadcast(materializer);
+    var quotaExpiry = quotaExpiry();
+    // fast-path quotes are only stored at checkpoints, in between trade acceptance is served from the cache;
+    // the fast path feeds the cache itself, only quota-cache.enabled follows the Quota View
+    var quotaCache = new QuotaCache(componentClient,
+        new QuotaCache.Settings(
+            config.getBoolean("price-service.quota-cache.enabled") || config.getBoolean("price-service.fast-path.enabled"),
+            config.getBoolean("price-service.quota-cache.enabled"),
+            config.getInt("price-service.quota-cache.max-entries"),
+            config.getDuration("price-service.quota-cache.ttl")),
+        materializer);
+    var quotaStoreWriter = new QuotaStoreWriter(componentClient,
+        new QuotaStoreWriter.Settings(
+            config.getInt("price-service.quota-store.write-parallelism"),
+            config.getInt("price-service.quota-store.write-buffer-size")),
+        materializer);
+    var priceRateFastPath = new PriceRateFastPath(componentClient, localQuotaBroadcast,
+        new PriceRateFastPath.Settings(
+            config.getBoolean("price-service.fast-path.enabled"),
+            config.getDuration("price-service.fast-path.checkpoint-interval"),
+            config.getDouble("price-service.fast-path.checkpoint-move-pips")),
+        quotaExpiry,
+        quotaCache,
+        materializer);
+    var priceRateThrottle = priceRateThrottle(config.getConfig("price-service.publish-policy"));
+    var forwardCurveEngine = new ForwardCurveEngine(forwardCurves(config.getConfig("price-service.forward-curve")));
+    var clientSpreadEngine = clientSpreadEngine(config.getConfig("price-service.client-spreads"));
+    var priceRateProcessor = new PriceRateProcessor(componentClient, subscriberCreditCache, priceRateFastPath, priceRateThrottle, forwardCurveEngine, clientSpreadEngine,
+        new PriceRateProcessor.Settings(
+            config.getBoolean("price-service.compact-price-rate-events"),
+            config.getBoolean("price-service.entity-quotas.enabled")));
+    priceRateThrottle.runTrailing(config.getDuration("price-service.publish-policy.trailing-interval"), priceRateProcessor::publish, materializer);
+    // with per-client view rows, SSE connections read their own slice and the node no longer streams all quotas
+    var clientQuotaView = config.getBoolean("price-service.client-quota-view.enabled");
+    var quotaUpstream = clientQuotaView
+        ? localQuotaBroadcast.getSource()
+        : new QuotaViewSingletonStreamQuery(componentClient,
+            new QuotaViewSingletonStreamQuery.Settings(
+                config.getBoolean("price-service.quota-stream.replay-on-start"),
+                config.getDuration("price-service.quota-stream.resume-margin")),
+            materializer).getSource().merge(localQuotaBroadcast.getSource());
+    var quotaRouter = new QuotaRouter(componentClient, quotaUpstream, new QuotaRouter.Settings(
+        clientQuotaView,
+        config.getDuration("price-service.quota-stream.linger"),
+        config.getInt("price-service.quota-stream.subscriber-buffer-size"),
+        QuotaRouter.OverflowPolicy.parse(config.getString("price-service.quota-stream.overflow-policy"))), materializer);
+    var fxRateConflator = new FxRateConflator(
+        config.getDuration("price-service.fx-rate-conflation.window"),
+        priceRateProcessor::process,
+        materializer);
+    var creditStatusConflator = new CreditStatusConflator(
+        config.getDuration("price-service.credit-status-conflation.window"),
+        event -> componentClient.forWorkflow(event.clientId())
+            .method(ClientWorkflow::creditCheckStatus)
+            .invoke(new ClientWorkflow.CreditCheckUpdate(event.status())),
+        materializer);
     return new DependencyProvider() {
       @SuppressWarnings("unchecked")
       @Override
@@ -50,8 +221,38 @@ public class Bootstrap implements ServiceSetup {
         if (clazz == FxRateService.class) {
           return (T) fxRateService;
         }
-        if (clazz == QuotaViewSingletonStreamQuery.class) {
-          return (T) quotaViewSingletonStream;
+        if (clazz == QuotaRouter.class) {
+          return (T) quotaRouter;
+        }
+        if (clazz == PriceRateProcessor.class) {
+          return (T) priceRateProcessor;
+        }
+        if (clazz == FxRateConflator.class) {
+          return (T) fxRateConflator;
+        }
+        if (clazz == CreditStatusConflator.class) {
+          return (T) creditStatusConflator;
+        }
+        if (clazz == QuotaCache.class) {
+          return (T) quotaCache;
+        }
+        if (clazz == QuotaStoreWriter.class) {
+          return (T) quotaStoreWriter;
+        }
+        if (clazz == PriceRateThrottle.class) {
+          return (T) priceRateThrottle;
+        }
+        if (clazz == ClientSpreadEngine.class) {
+          return (T) clientSpreadEngine;
+        }
+        if (clazz == ForwardCurveEngine.class) {
+          return (T) forwardCurveEngine;
+        }
+        if (clazz == QuotaExpiry.class) {
+          return (T) quotaExpiry;
+        }
+        if (clazz == SubscriberSnapshotCache.class) {
+          return (T) subscriberSnapshotCache;
         }
         throw new RuntimeException("No such dependency: " + clazz);
       }
@@ -7,18 +7,18 @@ import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.HttpResponses;
-import akka.NotUsed;
-import akka.stream.Materializer;
-import akka.stream.javadsl.Merge;
-import akka.stream.javadsl.Source;
 import com.example.application.*;
 import com.example.domain.ClientWorkflowState;
+import com.example.domain.CreditStatusEvent;
 import com.example.domain.Quota;
 import com.example.domain.CreditStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 @HttpEndpoint("/clients")
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
@@ -26,13 +26,17 @@ public class ClientEndpoint {
 
   private final Logger logger = LoggerFactory.getLogger(ClientEndpoint.class);
   private final ComponentClient componentClient;
-  private final Materializer materializer;
-  private final QuotaViewSingletonStreamQuery  quotaViewSingletonStreamQuery;
+  private final QuotaRouter quotaRouter;
+  private final PriceRateProcessor priceRateProcessor;
+  private final QuotaCache quotaCache;
+  private final CreditStatusConflator creditStatusConflator;
 
-  public ClientEndpoint(ComponentClient componentClient, Materializer materializer, QuotaViewSingletonStreamQuery quotaViewSingletonStreamQuery) {
+  public ClientEndpoint(ComponentClient componentClient, QuotaRouter quotaRouter, PriceRateProcessor priceRateProcessor, QuotaCache quotaCache, CreditStatusConflator creditStatusConflator) {
     this.componentClient = componentClient;
-    this.materializer = materializer;
-    this.quotaViewSingletonStreamQuery = quotaViewSingletonStreamQuery;
+    this.quotaRouter = quotaRouter;
+    this.priceRateProcessor = priceRateProcessor;
+    this.quotaCache = quotaCache;
+    this.creditStatusConflator = creditStatusConflator;
   }
 
   @Post("/{clientId}/subscribe/{ccyPair}")
@@ -51,6 +55,22 @@ public class ClientEndpoint {
     return HttpResponses.ok();
   }
 
+  @Post("/{clientId}/subscribe")
+  public HttpResponse subscribeAll(String clientId, ClientWorkflow.BatchSubscription batch) {
+    componentClient.forWorkflow(clientId)
+            .method(ClientWorkflow::subscribeAll)
+            .invoke(batch);
+    return HttpResponses.ok();
+  }
+
+  @Post("/{clientId}/unsubscribe")
+  public HttpResponse unsubscribeAll(String clientId, ClientWorkflow.BatchSubscription batch) {
+    componentClient.forWorkflow(clientId)
+            .method(ClientWorkflow::unsubscribeAll)
+            .invoke(batch);
+    return HttpResponses.ok();
+  }
+
   @Get("/{clientId}/state")
   public ClientWorkflowState getState(String clientId) {
     return componentClient.forWorkflow(clientId)
@@ -59,22 +79,62 @@ public class ClientEndpoint {
   }
 
   @Get("/{clientId}/price-rate/{priceRateId}/quota")
-  public Optional<Quota> getPriceRateQuota(String clientId, String priceRateId) {
+  public CompletionStage<Optional<Quota>> getPriceRateQuota(String clientId, String priceRateId) {
+    return lookupQuota(clientId, priceRateId);
+  }
+
+  public record QuotaLookup(String clientId, String priceRateId) {}
+
+  public record QuotaLookups(List<QuotaLookup> lookups) {}
+
+  public record QuotaLookupResult(String clientId, String priceRateId, Optional<Quota> quota) {}
+
+  public record QuotaLookupResults(List<QuotaLookupResult> results) {}
+
+  /**
+   * Multi-get of quotas for trade acceptance bursts; results are in request order and carry their (clientId,
+   * priceRateId). Each lookup completes on its own: misses and failed lookups have an empty quota, so one failing
+   * lookup does not fail the batch.
+   */
+  @Post("/quotas/lookup")
+  public CompletionStage<QuotaLookupResults> lookupQuotas(QuotaLookups request) {
+    var lookups = request.lookups().stream()
+        .map(lookup -> lookupQuota(lookup.clientId(), lookup.priceRateId())
+            .exceptionally(e -> {
+              logger.warn("Quota lookup of client {} priceRateId {} failed", lookup.clientId(), lookup.priceRateId(), e);
+              return Optional.empty();
+            })
+            .thenApply(quota -> new QuotaLookupResult(lookup.clientId(), lookup.priceRateId(), quota))
+            .toCompletableFuture())
+        .toList();
+    return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+        .thenApply(done -> new QuotaLookupResults(lookups.stream().map(CompletableFuture::join).toList()));
+  }
+
+  private CompletionStage<Optional<Quota>> lookupQuota(String clientId, String priceRateId) {
+    var cached = quotaCache.get(priceRateId, clientId);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached);
+    }
     return componentClient.forKeyValueEntity(priceRateId)
-        .method(QuotaEntity::get)
-        .invoke(clientId);
+        .method(QuotaEntity::lookup)
+        .invokeAsync(clientId)
+        .thenCompose(lookup -> {
+          if (lookup.snapshotId().isEmpty()) {
+            return CompletableFuture.completedFuture(lookup.quota());
+          }
+          // compact quota: credit status and markup come from the subscriber snapshot the rate was issued against
+          return componentClient.forKeyValueEntity(lookup.snapshotId().get())
+              .method(SubscriberSnapshotEntity::getSubscriber)
+              .invokeAsync(clientId)
+              .thenApply(lookup::withTerms);
+        });
   }
 
   @Get("/{clientId}/quotas")
   public HttpResponse quotasStream(String clientId) {
-    return HttpResponses.serverSentEvents(
-            quotaViewSingletonStreamQuery.getSource()
-                    .map(q -> {
-                      logger.info("Getting quota {}/{} for client {}", q.quotaId(), q.ccyPair(), clientId);
-                      return q;
-                    })
-            .filter(q -> q.clientId().equals(clientId))
-    );
+    logger.info("Opening quota stream for client {}", clientId);
+    return HttpResponses.serverSentEvents(quotaRouter.subscribe(clientId));
   }
 
   public record RateUpdate(String ccyPair, String tenor, double bid, double ask, long seq, long tsMs, Optional<String> priceRateId) {
@@ -85,9 +145,11 @@ public class ClientEndpoint {
 
   public record CreditUpdate(String clientId, CreditStatus status) {}
 
+  public record CreditUpdates(List<CreditUpdate> updates) {}
+
   @Post("/simulate/rate-update")
   public HttpResponse simulateRateUpdate(RateUpdate rateUpdate) {
-     FxRateConsumer.priceRateProcessing(componentClient, materializer, rateUpdate.ccyPair(), rateUpdate.tenor(), rateUpdate.bid(), rateUpdate.ask(), rateUpdate.seq(), rateUpdate.tsMs(), rateUpdate.priceRateId());
+     priceRateProcessor.process(rateUpdate.ccyPair(), rateUpdate.tenor(), rateUpdate.bid(), rateUpdate.ask(), rateUpdate.seq(), rateUpdate.tsMs(), rateUpdate.priceRateId());
      return HttpResponses.ok();
   }
 
@@ -98,4 +160,17 @@ public class ClientEndpoint {
         .invoke(new ClientWorkflow.CreditCheckUpdate(creditUpdate.status()));
     return HttpResponses.ok();
   }
-}
\ No newline at end of file
+
+  /**
+   * Bulk variant of {@code /simulate/credit-update}: the updates go through the same (opt-in) latest-wins
+   * coalescing as the credit-check-events topic, and are applied asynchronously when it is on.
+   */
+  @Post("/simulate/credit-updates")
+  public HttpResponse simulateCreditUpdates(CreditUpdates creditUpdates) {
+    var now = System.currentTimeMillis();
+    for (var update : creditUpdates.updates()) {
+      creditStatusConflator.offer(new CreditStatusEvent(update.clientId(), update.status(), "simulated", now));
+    }
+    return HttpResponses.accepted();
+  }
+}
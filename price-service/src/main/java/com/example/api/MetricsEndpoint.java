@@ -0,0 +1,71 @@
+package com.example.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import com.example.application.CreditStatusConflator;
+import com.example.application.FxRateConflator;
+import com.example.application.PriceRateThrottle;
+import com.example.application.QuotaCache;
+import com.example.application.QuotaStoreWriter;
+
+import java.util.List;
+
+/**
+ * Node-local counters of the in-memory pipeline stages. Values are per node, not cluster-wide.
+ */
+@HttpEndpoint("/metrics")
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
+public class MetricsEndpoint {
+
+  private final FxRateConflator fxRateConflator;
+  private final QuotaRouter quotaRouter;
+  private final QuotaCache quotaCache;
+  private final QuotaStoreWriter quotaStoreWriter;
+  private final PriceRateThrottle priceRateThrottle;
+  private final CreditStatusConflator creditStatusConflator;
+
+  public MetricsEndpoint(FxRateConflator fxRateConflator, QuotaRouter quotaRouter, QuotaCache quotaCache, QuotaStoreWriter quotaStoreWriter, PriceRateThrottle priceRateThrottle, CreditStatusConflator creditStatusConflator) {
+    this.fxRateConflator = fxRateConflator;
+    this.quotaRouter = quotaRouter;
+    this.quotaCache = quotaCache;
+    this.quotaStoreWriter = quotaStoreWriter;
+    this.priceRateThrottle = priceRateThrottle;
+    this.creditStatusConflator = creditStatusConflator;
+  }
+
+  @Get("/fx-rate-conflation")
+  public FxRateConflator.Stats fxRateConflation() {
+    return fxRateConflator.stats();
+  }
+
+  @Get("/quota-router")
+  public QuotaRouter.Stats quotaRouter() {
+    return quotaRouter.stats();
+  }
+
+  @Get("/quota-router/clients")
+  public List<QuotaRouter.ClientStats> quotaRouterClients() {
+    return quotaRouter.clientStats();
+  }
+
+  @Get("/quota-cache")
+  public QuotaCache.Stats quotaCache() {
+    return quotaCache.stats();
+  }
+
+  @Get("/quota-store")
+  public QuotaStoreWriter.Stats quotaStore() {
+    return quotaStoreWriter.stats();
+  }
+
+  @Get("/publish-policy")
+  public PriceRateThrottle.Stats publishPolicy() {
+    return priceRateThrottle.stats();
+  }
+
+  @Get("/credit-status-conflation")
+  public CreditStatusConflator.Stats creditStatusConflation() {
+    return creditStatusConflator.stats();
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.api;
+
+import akka.javasdk.annotations.TypeName;
+import com.example.domain.CreditStatus;
+import com.example.domain.Quota;
+
+import java.util.List;
+
+/**
+ * Public events of the {@code price-rate-quotas} service stream. Kept apart from the domain types so the
+ * stream format does not change with them.
+ */
+public sealed interface QuotaEvents {
+
+  record PublishedQuota(
+      String quotaId,
+      String priceRateId,
+      String clientId,
+      String ccyPair,
+      String tenor,
+      double bid,
+      double ask,
+      CreditStatus creditStatus,
+      long timestamp) {
+
+    static PublishedQuota of(Quota quota) {
+      return new PublishedQuota(quota.quotaId(), quota.priceRateId(), quota.clientId(), quota.ccyPair(), quota.tenor(),
+          quota.bid(), quota.ask(), quota.creditStatus(), quota.timestamp());
+    }
+  }
+
+  @TypeName("quotas-published")
+  record QuotasPublished(String ccyPair, List<PublishedQuota> quotas) implements QuotaEvents {}
+}
@@ -0,0 +1,266 @@
+package com.example.api;
+
+import akka.NotUsed;
+import akka.actor.Cancellable;
+import akka.javasdk.client.ComponentClient;
+import akka.stream.BoundedSourceQueue;
+import akka.stream.KillSwitches;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.UniqueKillSwitch;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.example.application.ClientQuotaView;
+import com.example.domain.Quota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Demultiplexes the node's quota stream by clientId: the upstream is consumed once and each quota is
+ * offered only to the SSE streams of the client that owns it, so routing is O(1) per quota instead of
+ * every connection filtering the whole stream.
+ *
+ * <p>With {@code price-service.client-quota-view.enabled} the upstream only carries the node-local
+ * broadcast, and each connection additionally streams its own rows from {@link ClientQuotaView}.
+ *
+ * <p>The upstream only runs while there are connections: it is started by the first one and stopped
+ * {@code linger} after the last one has gone, so idle nodes do not consume the view stream.
+ *
+ * <p>Every connection has its own bounded buffer, so a slow SSE client never back-pressures the
+ * upstream; when the buffer is full the {@link OverflowPolicy} decides what is lost.
+ */
+public class QuotaRouter {
+
+  private static final Logger logger = LoggerFactory.getLogger(QuotaRouter.class);
+
+  public enum OverflowPolicy {
+    /** Drop the oldest buffered quota. */
+    DROP_OLDEST,
+    /** Keep only the latest buffered quota per ccyPair. */
+    CONFLATE,
+    /** Close the connection; the client has to reconnect. */
+    DISCONNECT;
+
+    public static OverflowPolicy parse(String value) {
+      return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+  }
+
+  public record Settings(boolean clientQuotaView, Duration linger, int bufferSize, OverflowPolicy overflowPolicy) {}
+
+  public record Stats(int clients, int connections, boolean upstreamRunning, long upstreamStarts,
+                      long routed, long unrouted, long dropped, long disconnected) {}
+
+  public record ClientStats(String clientId, long dropped, long disconnected) {}
+
+  public static class SlowConsumerException extends RuntimeException {
+    public SlowConsumerException(String clientId) {
+      super("Quota buffer full for client " + clientId);
+    }
+  }
+
+  private record ClientCounters(AtomicLong dropped, AtomicLong disconnected) {
+    ClientCounters() {
+      this(new AtomicLong(), new AtomicLong());
+    }
+  }
+
+  private final ComponentClient componentClient;
+  private final Source<Quota, ?> upstream;
+  private final Settings settings;
+  private final Materializer materializer;
+  private final ConcurrentHashMap<String, Set<BoundedSourceQueue<Quota>>> subscribersByClient = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, ClientCounters> countersByClient = new ConcurrentHashMap<>();
+
+  private final AtomicLong routed = new AtomicLong();
+  private final AtomicLong unrouted = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong disconnected = new AtomicLong();
+
+  // upstream lifecycle, guarded by this
+  private int connections;
+  private UniqueKillSwitch runningUpstream;
+  private Cancellable pendingStop;
+  private long upstreamStarts;
+
+  public QuotaRouter(ComponentClient componentClient, Source<Quota, ?> upstream, Settings settings, Materializer materializer) {
+    this.componentClient = componentClient;
+    this.upstream = upstream;
+    this.settings = settings;
+    this.materializer = materializer;
+  }
+
+  /**
+   * Source of the quotas of one client; registered on materialization and removed when the stream terminates.
+   */
+  public Source<Quota, NotUsed> subscribe(String clientId) {
+    // route() offers synchronously and quotas come in bursts (spot and forwards of a rate back to back), so the
+    // queue takes a whole buffer before the overflow policy stage gets to drain it
+    Source<Quota, NotUsed> routed = withOverflowPolicy(clientId, Source.<Quota>queue(settings.bufferSize())
+        .watchTermination((queue, done) -> {
+          register(clientId, queue);
+          done.whenComplete((d, e) -> unregister(clientId, queue));
+          return NotUsed.getInstance();
+        }));
+    if (!settings.clientQuotaView()) {
+      return routed;
+    }
+    return routed.merge(componentClient.forView()
+        .stream(ClientQuotaView::streamByClient)
+        .source(clientId));
+  }
+
+  public synchronized Stats stats() {
+    return new Stats(subscribersByClient.size(), connections, runningUpstream != null, upstreamStarts,
+        routed.get(), unrouted.get(), dropped.get(), disconnected.get());
+  }
+
+  public List<ClientStats> clientStats() {
+    return countersByClient.entrySet().stream()
+        .map(e -> new ClientStats(e.getKey(), e.getValue().dropped().get(), e.getValue().disconnected().get()))
+        .toList();
+  }
+
+  /**
+   * For {@link OverflowPolicy#DISCONNECT} a full queue closes the connection. The other policies drain the queue
+   * continuously into a bounded batch that is trimmed while the SSE connection is not pulling, so their queue only
+   * overflows on a single burst larger than {@code bufferSize}. For {@link OverflowPolicy#DROP_OLDEST} the bound also
+   * counts the quotas of the previous batch not emitted yet; {@link OverflowPolicy#CONFLATE} keeps one quota per
+   * ccyPair and tenor.
+   */
+  private Source<Quota, NotUsed> withOverflowPolicy(String clientId, Source<Quota, NotUsed> queued) {
+    return switch (settings.overflowPolicy()) {
+      case DISCONNECT -> queued;
+      case DROP_OLDEST -> {
+        var emitting = new AtomicInteger();
+        yield queued
+            .conflateWithSeed(
+                quota -> {
+                  var batch = new ArrayDeque<Quota>();
+                  batch.add(quota);
+                  return batch;
+                },
+                (batch, quota) -> {
+                  batch.add(quota);
+                  if (batch.size() + emitting.get() > settings.bufferSize()) {
+                    batch.pollFirst();
+                    recordDrop(clientId);
+                  }
+                  return batch;
+                })
+            .mapConcat(batch -> {
+              emitting.addAndGet(batch.size());
+              return batch;
+            })
+            .map(quota -> {
+              emitting.decrementAndGet();
+              return quota;
+            });
+      }
+      case CONFLATE -> queued
+          .conflateWithSeed(
+              quota -> {
+                var latest = new LinkedHashMap<String, Quota>();
+                latest.put(conflationKey(quota), quota);
+                return latest;
+              },
+              (latest, quota) -> {
+                if (latest.put(conflationKey(quota), quota) != null) {
+                  recordDrop(clientId);
+                }
+                return latest;
+              })
+          .mapConcat(latest -> latest.values());
+    };
+  }
+
+  // a forward quota does not replace the spot quota of the same pair
+  private static String conflationKey(Quota quota) {
+    return quota.ccyPair() + "/" + quota.tenor();
+  }
+
+  private void route(Quota quota) {
+    var queues = subscribersByClient.get(quota.clientId());
+    if (queues == null) {
+      unrouted.incrementAndGet();
+      return;
+    }
+    logger.debug("Routing quota {}/{} to client {}", quota.quotaId(), quota.ccyPair(), quota.clientId());
+    routed.incrementAndGet();
+    for (var queue : queues) {
+      if (queue.offer(quota) != QueueOfferResult.enqueued()) {
+        if (settings.overflowPolicy() == OverflowPolicy.DISCONNECT) {
+          logger.warn("Disconnecting slow quota subscriber {}", quota.clientId());
+          disconnected.incrementAndGet();
+          var counters = countersByClient.get(quota.clientId());
+          if (counters != null) {
+            counters.disconnected().incrementAndGet();
+          }
+          queue.fail(new SlowConsumerException(quota.clientId()));
+        } else {
+          recordDrop(quota.clientId());
+        }
+      }
+    }
+  }
+
+  private void recordDrop(String clientId) {
+    dropped.incrementAndGet();
+    var counters = countersByClient.get(clientId);
+    if (counters != null) {
+      counters.dropped().incrementAndGet();
+    }
+  }
+
+  private synchronized void register(String clientId, BoundedSourceQueue<Quota> queue) {
+    subscribersByClient.computeIfAbsent(clientId, id -> ConcurrentHashMap.newKeySet()).add(queue);
+    countersByClient.computeIfAbsent(clientId, id -> new ClientCounters());
+    connections++;
+    if (pendingStop != null) {
+      pendingStop.cancel();
+      pendingStop = null;
+    }
+    if (runningUpstream == null) {
+      logger.info("Starting quota upstream for first subscriber {}", clientId);
+      upstreamStarts++;
+      runningUpstream = upstream
+          .viaMat(KillSwitches.single(), Keep.right())
+          .to(Sink.foreach(this::route))
+          .run(materializer);
+    }
+  }
+
+  private synchronized void unregister(String clientId, BoundedSourceQueue<Quota> queue) {
+    subscribersByClient.computeIfPresent(clientId, (id, queues) -> {
+      queues.remove(queue);
+      return queues.isEmpty() ? null : queues;
+    });
+    // per-client counters live as long as the client has a connection
+    if (!subscribersByClient.containsKey(clientId)) {
+      countersByClient.remove(clientId);
+    }
+    connections--;
+    if (connections == 0 && runningUpstream != null && pendingStop == null) {
+      pendingStop = materializer.scheduleOnce(settings.linger(), this::stopIfIdle);
+    }
+  }
+
+  private synchronized void stopIfIdle() {
+    pendingStop = null;
+    if (connections == 0 && runningUpstream != null) {
+      logger.info("Stopping quota upstream, no subscribers for {}", settings.linger());
+      runningUpstream.shutdown();
+      runningUpstream = null;
+    }
+  }
+}
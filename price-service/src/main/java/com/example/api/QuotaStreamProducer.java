@@ -0,0 +1,40 @@
+package com.example.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Produce;
+import akka.javasdk.consumer.Consumer;
+import com.example.application.PriceEntity;
+import com.example.domain.PriceEvent;
+import com.example.domain.Quota;
+
+import java.util.ArrayList;
+
+/**
+ * Publishes the quotas of every stored rate (spot and forwards) as a service stream, so other services can keep
+ * their own copy of recent quotas instead of asking for one at trade time.
+ *
+ * <p>Compact rates and fast-path quotas are not published; consumers fall back to the quota lookup endpoint.
+ */
+@Component(id = "quota-stream-producer")
+@Consume.FromEventSourcedEntity(PriceEntity.class)
+@Produce.ServiceStream(id = "price-rate-quotas")
+@Acl(allow = @Acl.Matcher(service = "*"))
+public class QuotaStreamProducer extends Consumer {
+
+  public Effect onEvent(PriceEvent event) {
+    return switch (event) {
+      case PriceEvent.PriceRateAdded e -> {
+        var quotas = new ArrayList<QuotaEvents.PublishedQuota>();
+        e.quotas().forEach(q -> quotas.add(QuotaEvents.PublishedQuota.of(Quota.of(e.ccyPair(), e.priceRate(), q))));
+        e.forwards().forEach(f -> f.quotasFor(e.quotas()).forEach(q ->
+            quotas.add(QuotaEvents.PublishedQuota.of(Quota.of(e.ccyPair(), f.priceRate(), q)))));
+        yield quotas.isEmpty()
+            ? effects().ignore()
+            : effects().produce(new QuotaEvents.QuotasPublished(e.ccyPair(), quotas));
+      }
+      default -> effects().ignore();
+    };
+  }
+}
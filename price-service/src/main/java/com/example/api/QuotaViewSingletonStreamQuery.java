@@ -11,48 +11,89 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Stream of all quotas from {@link QuotaView}. Materialized once per node by {@link QuotaRouter}, which starts it
+ * on demand and stops it when the node has no quota subscribers.
+ *
+ * <p>Unless {@code replayOnStart} is set, each start only streams rows updated from the start time on (minus
+ * {@code resumeMargin}), and every backoff restart resumes from the newest row update seen (minus
+ * {@code resumeMargin}) instead of re-streaming the whole table. Positions are
+ * {@link QuotaView.QuotaEntry#updatedAt()} values, which follow the feed clock: the margin must also cover how far
+ * the feed clock may lag the node clock. Rows overlapping across a restart are dropped by remembering the last
+ * (priceRateId, seq) emitted per ccyPair.
+ */
 public class QuotaViewSingletonStreamQuery {
 
+    public record Settings(boolean replayOnStart, Duration resumeMargin) {}
+
     private static final Logger logger = LoggerFactory.getLogger(QuotaViewSingletonStreamQuery.class);
     private final ComponentClient componentClient;
     private final Materializer materializer;
+    private final Settings settings;
 
-    private final Source<Quota, NotUsed> source;
+    // newest row updatedAt seen by any incarnation of the view stream, -1 until the first start
+    private final AtomicLong lastSeenTimestamp = new AtomicLong(-1);
+    private final ConcurrentHashMap<String, String> lastRateByCcyPair = new ConcurrentHashMap<>();
 
-    public QuotaViewSingletonStreamQuery(ComponentClient componentClient, Materializer materializer) {
+    public QuotaViewSingletonStreamQuery(ComponentClient componentClient, Settings settings, Materializer materializer) {
         this.componentClient = componentClient;
         this.materializer = materializer;
-        source = runStream();
+        this.settings = settings;
     }
 
+    /**
+     * Each materialization is a fresh start: the resume position is reset, so a stream started again after an
+     * idle period does not replay what was missed while nobody was listening.
+     */
     public Source<Quota, NotUsed> getSource() {
-        return source;
-    }
-
-    private Source<Quota, NotUsed> runStream() {
-        var source = streamAllQuotas();
-        return source
-                .toMat(BroadcastHub.of(Quota.class), Keep.both())
-                .run(materializer)
-                .second();
+        return Source.lazySource(() -> {
+                    lastSeenTimestamp.set(-1);
+                    return streamAllQuotas();
+                })
+                .mapMaterializedValue(m -> NotUsed.getInstance());
     }
 
     private Source<Quota,?> streamAllQuotas(){
         return RestartSource.withBackoff(
                 RestartSettings.create(Duration.ofMillis(1000),Duration.ofMillis(100),2.4),
                 () -> {
-                    logger.warn("Restart");
+                    var since = resumeFrom();
+                    logger.warn("Restart from {}", since);
                     return componentClient.forView()
-                            .stream(QuotaView::streamAll)
-                            .source()
+                            .stream(QuotaView::streamSince)
+                            .source(since)
+                            .filter(this::isNewRate)
                             .mapConcat(qe -> {
-                                logger.warn("streamAllQuotas: {}", qe.ccyPair());
-                                var quotas = qe.quotas().stream().map(pq -> new Quota(pq.quotaId(), qe.priceRate().priceRateId(), pq.clientId(),qe.ccyPair(),qe.priceRate().tenor(), qe.priceRate().bid(), qe.priceRate().ask(),pq.creditStatus(),qe.priceRate().timestamp())).toList();
-                                return quotas;
+                                logger.debug("streamAllQuotas: {}", qe.ccyPair());
+                                return qe.toQuotas();
                             });
                 }
         );
     }
 
+    private long resumeFrom() {
+        var lastSeen = lastSeenTimestamp.get();
+        if (lastSeen < 0) {
+            var since = settings.replayOnStart() ? 0L : System.currentTimeMillis() - settings.resumeMargin().toMillis();
+            lastSeenTimestamp.compareAndSet(-1, since);
+            return since;
+        }
+        return Math.max(0L, lastSeen - settings.resumeMargin().toMillis());
+    }
+
+    private boolean isNewRate(QuotaView.QuotaEntry entry) {
+        lastSeenTimestamp.accumulateAndGet(entry.updatedAt(), Math::max);
+        if (entry.priceRate() == null) {
+            return false;
+        }
+        var rateKey = entry.priceRate().priceRateId() + ":" + entry.priceRate().seq();
+        if (rateKey.equals(lastRateByCcyPair.put(entry.ccyPair(), rateKey))) {
+            return false;
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,81 @@
+package com.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.example.domain.PriceEvent;
+import com.example.domain.PriceRate;
+import com.example.domain.PriceRateClientQuota;
+import com.example.domain.Quota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fans price rates out into one {@link ClientQuotaEntity} per (clientId, ccyPair). Only enabled with
+ * {@code price-service.client-quota-view.enabled}.
+ */
+@Component(id = "client-quota-consumer")
+@Consume.FromEventSourcedEntity(PriceEntity.class)
+public class ClientQuotaConsumer extends Consumer {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClientQuotaConsumer.class);
+
+  private final ComponentClient componentClient;
+  private final SubscriberSnapshotCache subscriberSnapshotCache;
+
+  public ClientQuotaConsumer(ComponentClient componentClient, SubscriberSnapshotCache subscriberSnapshotCache) {
+    this.componentClient = componentClient;
+    this.subscriberSnapshotCache = subscriberSnapshotCache;
+  }
+
+  public Effect onEvent(PriceEvent event) {
+    if (!isEventLocal()) {
+      return effects().ignore();
+    }
+    return switch (event) {
+      case PriceEvent.PriceRateAdded e -> {
+        var updates = new ArrayList<CompletableFuture<Void>>();
+        updates.add(updateClientQuotas(e.ccyPair(), e.priceRate(), e.quotas()));
+        e.forwards().forEach(f -> updates.add(updateClientQuotas(e.ccyPair(), f.priceRate(), f.quotasFor(e.quotas()))));
+        yield effects().asyncDone(CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).thenApply(v -> Done.getInstance()));
+      }
+      // written here as well (set is idempotent), so the snapshot exists before the compact rate referencing it
+      case PriceEvent.SubscriberSnapshotUpdated e -> {
+        componentClient.forKeyValueEntity(e.snapshotId())
+            .method(SubscriberSnapshotEntity::set)
+            .invoke(new SubscriberSnapshotEntity.SetCommand(e.version(), e.subscribers()));
+        subscriberSnapshotCache.put(e.ccyPair(), e.snapshotId(), e.subscribers());
+        yield effects().done();
+      }
+      case PriceEvent.CompactPriceRateAdded e -> {
+        var subscribers = subscriberSnapshotCache.subscribers(e.ccyPair(), e.snapshotId());
+        var quotas = subscribers.stream().map(s -> s.toQuota(e.priceRate().priceRateId())).toList();
+        yield effects().asyncDone(updateClientQuotas(e.ccyPair(), e.priceRate(), quotas).thenApply(v -> Done.getInstance()));
+      }
+      default -> effects().ignore();
+    };
+  }
+
+  // completes once every client quota is stored, so the event is acknowledged only then
+  private CompletableFuture<Void> updateClientQuotas(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+    logger.debug("Updating {} client quotas for {} priceRateId {}", quotas.size(), ccyPair, priceRate.priceRateId());
+    var futures = quotas.stream()
+        .map(q -> componentClient.forKeyValueEntity(ClientQuotaEntity.entityId(q.clientId(), ccyPair, priceRate.tenor()))
+            .method(ClientQuotaEntity::update)
+            .invokeAsync(Quota.of(ccyPair, priceRate, q))
+            .toCompletableFuture())
+        .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(futures);
+  }
+
+  // only do this for a consumer that is in the same region where the event originated
+  private boolean isEventLocal() {
+    return messageContext().originRegion().isPresent()?messageContext().originRegion().get().equals(messageContext().selfRegion()):true;
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.example.domain.Quota;
+
+/**
+ * Latest quota of one client for one currency pair and tenor, keyed by {@link #entityId(String, String, String)}.
+ * Source of the per-client rows of {@link ClientQuotaView}.
+ */
+@Component(id = "client-quota-entity")
+public class ClientQuotaEntity extends KeyValueEntity<Quota> {
+
+  public static String entityId(String clientId, String ccyPair) {
+    return clientId + "-" + ccyPair;
+  }
+
+  // spot keeps the original key, so existing rows are still updated
+  public static String entityId(String clientId, String ccyPair, String tenor) {
+    return ForwardCurveEngine.SPOT.equals(tenor) ? entityId(clientId, ccyPair) : entityId(clientId, ccyPair) + "-" + tenor;
+  }
+
+  public Effect<Done> update(Quota quota) {
+    // redelivered or reordered fan-out writes must not move the row back to an older rate
+    if (currentState() != null && currentState().timestamp() > quota.timestamp()) {
+      return effects().reply(Done.getInstance());
+    }
+    return effects().updateState(quota).thenReply(Done.getInstance());
+  }
+}
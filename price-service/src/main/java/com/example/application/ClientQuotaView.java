@@ -0,0 +1,29 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.example.domain.Quota;
+
+/**
+ * One row per (clientId, ccyPair), so a quota stream can be filtered by clientId in the view
+ * instead of every node pulling all quotas.
+ */
+@Component(id = "client-quota-view")
+public class ClientQuotaView extends View {
+
+  @Consume.FromKeyValueEntity(ClientQuotaEntity.class)
+  public static class ClientQuotaUpdater extends TableUpdater<Quota> {
+
+    public Effect<Quota> onUpdate(Quota quota) {
+      return effects().updateRow(quota);
+    }
+  }
+
+  @Query(value = "SELECT * FROM client_quotas WHERE clientId = :clientId", streamUpdates = true)
+  public QueryStreamEffect<Quota> streamByClient(String clientId) {
+    return queryStreamResult();
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.application;
+
+import com.example.domain.PriceRateClientQuota;
+import com.example.domain.SpreadTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Applies tiered client spreads when quotas are built. Every client maps to a profile (tier and size band)
+ * once at startup; each ccyPair has a {@link SpreadTable} over those profiles (or the default table), so a tick
+ * is marked up for all subscribers with one primitive-array pass.
+ *
+ * <p>The markups of a subscriber list are resolved once and kept with that list (the subscriber cache hands out the
+ * same list until the subscribers or their credit change), so a tick costs one lookup per ccyPair instead of one
+ * client lookup per subscriber.
+ */
+public class ClientSpreadEngine {
+
+  // markups of the subscriber list last quoted for a pair, valid as long as the very same list is passed
+  private record Markups(List<ClientView.ClientEntry> subscribers, double[] markups) {}
+
+  private final SpreadTable defaultTable;
+  private final Map<String, SpreadTable> tablesByCcyPair;
+  private final Map<String, Integer> profilesByClient;
+  private final int defaultProfile;
+  private final ConcurrentHashMap<String, Markups> markupsByCcyPair = new ConcurrentHashMap<>();
+
+  public ClientSpreadEngine(SpreadTable defaultTable, Map<String, SpreadTable> tablesByCcyPair, Map<String, Integer> profilesByClient, int defaultProfile) {
+    this.defaultTable = defaultTable;
+    this.tablesByCcyPair = Map.copyOf(tablesByCcyPair);
+    this.profilesByClient = Map.copyOf(profilesByClient);
+    this.defaultProfile = defaultProfile;
+  }
+
+  public double markup(String ccyPair, String clientId) {
+    return tablesByCcyPair.getOrDefault(ccyPair, defaultTable)
+        .markup(profilesByClient.getOrDefault(clientId, defaultProfile));
+  }
+
+  public List<PriceRateClientQuota> quotas(String ccyPair, List<ClientView.ClientEntry> subscribers, Supplier<String> quotaId) {
+    var count = subscribers.size();
+    var markups = markups(ccyPair, subscribers);
+    var quotas = new ArrayList<PriceRateClientQuota>(count);
+    for (int i = 0; i < count; i++) {
+      var subscriber = subscribers.get(i);
+      quotas.add(new PriceRateClientQuota(quotaId.get(), subscriber.clientId(), subscriber.creditStatus(), markups[i]));
+    }
+    return quotas;
+  }
+
+  private double[] markups(String ccyPair, List<ClientView.ClientEntry> subscribers) {
+    var cached = markupsByCcyPair.get(ccyPair);
+    if (cached != null && cached.subscribers() == subscribers) {
+      return cached.markups();
+    }
+    var count = subscribers.size();
+    var profiles = new int[count];
+    for (int i = 0; i < count; i++) {
+      profiles[i] = profilesByClient.getOrDefault(subscribers.get(i).clientId(), defaultProfile);
+    }
+    var markups = new double[count];
+    tablesByCcyPair.getOrDefault(ccyPair, defaultTable).apply(profiles, count, markups);
+    markupsByCcyPair.put(ccyPair, new Markups(subscribers, markups));
+    return markups;
+  }
+}
@@ -31,6 +31,11 @@ public class ClientView extends View {
     return queryStreamResult();
   }
 
+  @Query(value = "SELECT * FROM clients", streamUpdates = true)
+  public QueryStreamEffect<ClientEntry> streamAll() {
+    return queryStreamResult();
+  }
+
   @Query("SELECT * FROM clients WHERE clientId = :clientId")
   public QueryEffect<ClientEntry> getByClientId(String clientId) {
     return queryResult();
@@ -13,7 +13,10 @@ import com.example.domain.Quota;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static java.time.Duration.ofSeconds;
 
@@ -26,6 +29,8 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
 
     public record CreditCheckUpdate(CreditStatus status) {}
 
+    public record BatchSubscription(List<String> ccyPairs) {}
+
     private final ComponentClient componentClient;
     private final CreditCheckService creditCheckService;
 
@@ -55,7 +60,7 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
             return effects().reply(Done.getInstance());
         }
         if (state.isBusy()) {
-            return effects().error("Subscribe/unsubscribe already in progress for " + state.pendingPair().orElse("unknown"));
+            return enqueue(state.withSubscription(ccyPair), ClientWorkflowState.Status.SUBSCRIBING, List.of(ccyPair));
         }
 
         return effects()
@@ -72,7 +77,7 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
             return effects().reply(Done.getInstance());
         }
         if (currentState().isBusy()) {
-            return effects().error("Subscribe/unsubscribe already in progress for " + currentState().pendingPair().orElse("unknown"));
+            return enqueue(currentState().withoutSubscription(ccyPair), ClientWorkflowState.Status.UNSUBSCRIBING, List.of(ccyPair));
         }
 
         return effects()
@@ -84,13 +89,69 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
                 .thenReply(Done.getInstance());
     }
 
+    /**
+     * Subscribes to all given pairs in one run: the price entities are called concurrently and the
+     * credit check subscription is made once for the whole batch.
+     */
+    public Effect<Done> subscribeAll(BatchSubscription batch) {
+        var state = currentState() == null
+                ? ClientWorkflowState.initial(clientId())
+                : currentState();
+
+        var ccyPairs = batch.ccyPairs().stream()
+                .distinct()
+                .filter(ccyPair -> !state.isSubscribed(ccyPair) && !state.isSubscribingPair(ccyPair))
+                .toList();
+        if (ccyPairs.isEmpty()) {
+            return effects().reply(Done.getInstance());
+        }
+        if (state.isBusy()) {
+            return enqueue(state.withSubscriptions(ccyPairs), ClientWorkflowState.Status.SUBSCRIBING, ccyPairs);
+        }
+
+        return effects()
+                .updateState(state
+                        .withSubscriptions(ccyPairs)
+                        .withPending(ClientWorkflowState.Status.SUBSCRIBING, ccyPairs))
+                .transitionTo(ClientWorkflow::subscribeToPriceRatesStep)
+                .withInput(new BatchSubscription(ccyPairs))
+                .thenReply(Done.getInstance());
+    }
+
+    public Effect<Done> unsubscribeAll(BatchSubscription batch) {
+        if (currentState() == null) {
+            return effects().reply(Done.getInstance());
+        }
+        var ccyPairs = batch.ccyPairs().stream()
+                .distinct()
+                .filter(ccyPair -> currentState().isSubscribed(ccyPair) && !currentState().isUnsubscribingPair(ccyPair))
+                .toList();
+        if (ccyPairs.isEmpty()) {
+            return effects().reply(Done.getInstance());
+        }
+        if (currentState().isBusy()) {
+            return enqueue(currentState().withoutSubscriptions(ccyPairs), ClientWorkflowState.Status.UNSUBSCRIBING, ccyPairs);
+        }
+
+        return effects()
+                .updateState(currentState()
+                        .withoutSubscriptions(ccyPairs)
+                        .withPending(ClientWorkflowState.Status.UNSUBSCRIBING, ccyPairs))
+                .transitionTo(ClientWorkflow::unsubscribeFromPriceRatesStep)
+                .withInput(new BatchSubscription(ccyPairs))
+                .thenReply(Done.getInstance());
+    }
+
     public Effect<Done> creditCheckStatus(CreditCheckUpdate update) {
         if (currentState() == null) {
             return effects().reply(Done.getInstance());
         }
 
         if (currentState().isBusy()) {
-            return effects().error("Busy");
+            // credit status is independent of the subscription set: applied right away, the running steps go on
+            return effects()
+                    .updateState(currentState().withCreditStatus(update.status()))
+                    .thenReply(Done.getInstance());
         }
 
         return effects()
@@ -99,6 +160,20 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
                 .thenReply(Done.getInstance());
     }
 
+    /**
+     * Accepts a subscribe/unsubscribe while another one is in flight. Only the state is updated: the subscription
+     * set right away and the operation appended to the queue. The running steps are not touched; the last step of
+     * the in-flight operation takes the next queued one and runs its price entity / credit check calls.
+     */
+    private Effect<Done> enqueue(ClientWorkflowState state, ClientWorkflowState.Status operation, List<String> ccyPairs) {
+        if (state.isQueueFull()) {
+            return effects().error("Too many pending subscribe/unsubscribe operations for client " + clientId());
+        }
+        return effects()
+                .updateState(state.withQueued(operation, ccyPairs))
+                .thenReply(Done.getInstance());
+    }
+
     public ReadOnlyEffect<ClientWorkflowState> getState() {
         if (currentState() == null) {
             return effects().reply(ClientWorkflowState.initial(clientId()));
@@ -128,9 +203,7 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
 
         creditCheckService.subscribe(clientId());
 
-        return stepEffects()
-                .updateState(currentState().withIdle())
-                .thenPause();
+        return nextQueuedOrPause();
     }
 
 
@@ -154,16 +227,107 @@ public class ClientWorkflow extends Workflow<ClientWorkflowState> {
 
         creditCheckService.unsubscribe(clientId());
 
+        return nextQueuedOrPause();
+    }
+
+    @StepName("subscribe-price-rates")
+    private StepEffect subscribeToPriceRatesStep(BatchSubscription batch) {
+        logger.info("Subscribing to price rates client {} to {}", clientId(), batch.ccyPairs());
+
+        var futures = batch.ccyPairs().stream()
+                .map(ccyPair -> componentClient
+                        .forEventSourcedEntity(ccyPair)
+                        .method(PriceEntity::subscribe)
+                        .invokeAsync(clientId())
+                        .toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
         return stepEffects()
-                .updateState(currentState().withIdle())
-                .thenPause();
+                .thenTransitionTo(ClientWorkflow::subscribeToCreditCheck)
+                .withInput(String.join(",", batch.ccyPairs()));
+    }
+
+    @StepName("unsubscribe-price-rates")
+    private StepEffect unsubscribeFromPriceRatesStep(BatchSubscription batch) {
+        logger.info("Unsubscribing from price rates client {} from {}", clientId(), batch.ccyPairs());
+
+        var futures = batch.ccyPairs().stream()
+                .map(ccyPair -> componentClient
+                        .forEventSourcedEntity(ccyPair)
+                        .method(PriceEntity::ensureUnsubscribed)
+                        .invokeAsync(clientId())
+                        .toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        return stepEffects()
+                .thenTransitionTo(ClientWorkflow::unsubscribeFromCreditCheckStep)
+                .withInput(String.join(",", batch.ccyPairs()));
+    }
+
+    @StepName("resume-pending")
+    private StepEffect resumeStep() {
+        var state = currentState();
+        if (!state.isBusy()) {
+            return nextQueuedOrPause();
+        }
+        var batch = new BatchSubscription(state.pendingPairs().isEmpty()
+                ? state.pendingPair().stream().toList()
+                : List.copyOf(state.pendingPairs()));
+        if (state.status() == ClientWorkflowState.Status.SUBSCRIBING) {
+            return stepEffects()
+                    .thenTransitionTo(ClientWorkflow::subscribeToPriceRatesStep)
+                    .withInput(batch);
+        }
+        return stepEffects()
+                .thenTransitionTo(ClientWorkflow::unsubscribeFromPriceRatesStep)
+                .withInput(batch);
     }
 
+    /**
+     * A failed operation is rolled back, so {@code subscriptions} matches what the price entities hold:
+     * <ul>
+     *   <li>a failed subscribe takes its pairs out of {@code subscriptions}, and the price entities that may have
+     *   accepted the client are told to drop it again;</li>
+     *   <li>a failed unsubscribe puts its pairs back, and the price entities that may have dropped the client are
+     *   told to take it again, so the client can retry the unsubscribe.</li>
+     * </ul>
+     * The price entity calls are best effort.
+     */
     @StepName("failover")
     private StepEffect failoverStep() {
-        logger.warn("Step failed for client {}, pausing workflow", clientId());
+        var state = currentState();
+        logger.warn("Step failed for client {} {} {}, rolling back and skipping to next queued operation", clientId(), state.status(), state.pendingPairs());
+        var failed = new HashSet<>(state.pendingPairs());
+        state.pendingPair().ifPresent(failed::add);
+        var subscribing = state.status() == ClientWorkflowState.Status.SUBSCRIBING;
+        failed.forEach(ccyPair -> {
+            var priceEntity = componentClient.forEventSourcedEntity(ccyPair);
+            var rollback = subscribing
+                    ? priceEntity.method(PriceEntity::ensureUnsubscribed).invokeAsync(clientId())
+                    : priceEntity.method(PriceEntity::subscribe).invokeAsync(clientId());
+            rollback.exceptionally(e -> {
+                logger.error("Failed rolling back {} of client {} for {}", state.status(), clientId(), ccyPair, e);
+                return Done.getInstance();
+            });
+        });
+        return nextQueuedOrPause(state.withPendingRolledBack());
+    }
+
+    private StepEffect nextQueuedOrPause() {
+        return nextQueuedOrPause(currentState());
+    }
+
+    private StepEffect nextQueuedOrPause(ClientWorkflowState state) {
+        var next = state.withNextQueued();
+        if (next.isBusy()) {
+            return stepEffects()
+                    .updateState(next)
+                    .thenTransitionTo(ClientWorkflow::resumeStep);
+        }
         return stepEffects()
-                .updateState(currentState().withIdle())
+                .updateState(next)
                 .thenPause();
     }
 
@@ -2,7 +2,6 @@ package com.example.application;
 
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.Consume;
-import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
 import com.example.domain.CreditStatusEvent;
 import org.slf4j.Logger;
@@ -14,19 +13,18 @@ public class CreditCheckConsumer extends Consumer {
 
   private static final Logger logger = LoggerFactory.getLogger(CreditCheckConsumer.class);
 
-  private final ComponentClient componentClient;
+  private final CreditStatusConflator creditStatusConflator;
 
-  public CreditCheckConsumer(ComponentClient componentClient) {
-    this.componentClient = componentClient;
+  public CreditCheckConsumer(CreditStatusConflator creditStatusConflator) {
+    this.creditStatusConflator = creditStatusConflator;
   }
 
   public Effect onEvent(CreditStatusEvent event) {
-    logger.info("Received credit status event for client {} status {}", event.clientId(), event.status());
-
-    componentClient.forWorkflow(event.clientId())
-        .method(ClientWorkflow::creditCheckStatus)
-        .invoke(new ClientWorkflow.CreditCheckUpdate(event.status()));
+    logger.debug("Received credit status event for client {} status {}", event.clientId(), event.status());
 
+    // conflation off (default): applied to ClientWorkflow before the ack, a failure fails the event for redelivery;
+    // on: latest-wins per client, applied once per window and kept until applied, retrying failures
+    creditStatusConflator.offer(event);
     return effects().done();
   }
-}
\ No newline at end of file
+}
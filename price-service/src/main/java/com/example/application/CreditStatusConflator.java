@@ -0,0 +1,121 @@
+package com.example.application;
+
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.example.domain.CreditStatusEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Latest-wins coalescing of credit status updates per client.
+ *
+ * <p>Like {@link FxRateConflator}, only the newest status per client received within a window is handed to the
+ * downstream processor, so a credit storm costs at most one {@link ClientWorkflow} write per client and window.
+ * Updates are applied concurrently across clients.
+ *
+ * <p>The latest status of a client is kept until it is applied: a failed update is retried in the next window
+ * unless a newer one arrived meanwhile. Updates older than the last status applied for the client (out-of-order
+ * delivery) are ignored. Updates not applied yet are node-local and lost if the node stops.
+ */
+public class CreditStatusConflator {
+
+  private static final Logger logger = LoggerFactory.getLogger(CreditStatusConflator.class);
+
+  public record Stats(long windowMs, long received, long conflated, long stale, long emitted, long failed, long pending) {}
+
+  private final Duration window;
+  private final Consumer<CreditStatusEvent> processor;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ConcurrentHashMap<String, CreditStatusEvent> pending = new ConcurrentHashMap<>();
+  // tsMs of the newest status applied per client
+  private final ConcurrentHashMap<String, Long> appliedTsMs = new ConcurrentHashMap<>();
+
+  private final AtomicLong received = new AtomicLong();
+  private final AtomicLong conflated = new AtomicLong();
+  private final AtomicLong stale = new AtomicLong();
+  private final AtomicLong emitted = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  public CreditStatusConflator(Duration window, Consumer<CreditStatusEvent> processor, Materializer materializer) {
+    this(window, processor);
+    if (isEnabled()) {
+      Source.tick(window, window, "flush")
+          .mapAsync(1, tick -> flush())
+          .to(Sink.ignore())
+          .run(materializer);
+    }
+  }
+
+  CreditStatusConflator(Duration window, Consumer<CreditStatusEvent> processor) {
+    this.window = window;
+    this.processor = processor;
+  }
+
+  public boolean isEnabled() {
+    return !window.isZero();
+  }
+
+  public void offer(CreditStatusEvent event) {
+    received.incrementAndGet();
+    if (!isEnabled()) {
+      emitted.incrementAndGet();
+      processor.accept(event);
+      return;
+    }
+    pending.merge(event.clientId(), event, (previous, update) -> {
+      conflated.incrementAndGet();
+      return newer(previous, update);
+    });
+  }
+
+  public Stats stats() {
+    return new Stats(window.toMillis(), received.get(), conflated.get(), stale.get(), emitted.get(), failed.get(), pending.size());
+  }
+
+  /**
+   * Applies the latest pending status of every client; completes when all of them are applied or put back.
+   */
+  CompletableFuture<Void> flush() {
+    var futures = new ArrayList<CompletableFuture<Void>>();
+    for (var clientId : pending.keySet()) {
+      var event = pending.remove(clientId);
+      if (event == null) {
+        continue;
+      }
+      var applied = appliedTsMs.get(clientId);
+      if (applied != null && applied > event.tsMs()) {
+        stale.incrementAndGet();
+        continue;
+      }
+      futures.add(CompletableFuture.runAsync(() -> apply(event), executor));
+    }
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+  }
+
+  private void apply(CreditStatusEvent event) {
+    try {
+      processor.accept(event);
+      emitted.incrementAndGet();
+      appliedTsMs.merge(event.clientId(), event.tsMs(), Math::max);
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      logger.warn("Failed applying credit status for client {}, retrying in the next window", event.clientId(), e);
+      // an update received meanwhile wins over the retry
+      pending.merge(event.clientId(), event, CreditStatusConflator::newer);
+    }
+  }
+
+  private static CreditStatusEvent newer(CreditStatusEvent previous, CreditStatusEvent update) {
+    return previous.tsMs() > update.tsMs() ? previous : update;
+  }
+}
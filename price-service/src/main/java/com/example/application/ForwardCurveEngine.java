@@ -0,0 +1,33 @@
+package com.example.application;
+
+import com.example.domain.ForwardCurve;
+import com.example.domain.TenorRate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached forward curves per ccyPair. Each spot tick is priced for all forward tenors of its pair in one
+ * pass, so forward tenors need neither their own upstream subscription nor their own {@link PriceEntity}.
+ *
+ * <p>The curves are the configured forward points, fixed at startup. Forwards are priced on the persisted quote
+ * path only: the fast path ({@link PriceRateFastPath}) and compact events carry spot quotes alone.
+ */
+public class ForwardCurveEngine {
+
+  public static final String SPOT = "SPOT";
+
+  private final Map<String, ForwardCurve> curves;
+
+  public ForwardCurveEngine(Map<String, ForwardCurve> curves) {
+    this.curves = Map.copyOf(curves);
+  }
+
+  public List<TenorRate> forwards(String ccyPair, String tenor, double spotBid, double spotAsk) {
+    var curve = curves.get(ccyPair);
+    if (curve == null || !SPOT.equals(tenor)) {
+      return List.of();
+    }
+    return curve.price(spotBid, spotAsk);
+  }
+}
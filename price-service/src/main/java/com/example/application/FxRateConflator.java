@@ -0,0 +1,111 @@
+package com.example.application;
+
+import akka.stream.BoundedSourceQueue;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.example.domain.FxRateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Latest-wins conflation of FX rate ticks keyed by ccyPair + tenor.
+ *
+ * <p>Ticks are collected for one window; at the end of the window only the newest tick per key
+ * is handed to the downstream processor. While a window is being processed the next one keeps
+ * conflating, so the downstream rate per key is bounded by the window regardless of feed rate.
+ */
+public class FxRateConflator {
+
+  private static final Logger logger = LoggerFactory.getLogger(FxRateConflator.class);
+  private static final int BUFFER_SIZE = 1024;
+
+  public record Stats(long windowMs, long received, long conflated, long dropped, long emitted) {}
+
+  private final Duration window;
+  private final Consumer<FxRateEvent> processor;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final BoundedSourceQueue<FxRateEvent> queue;
+
+  private final AtomicLong received = new AtomicLong();
+  private final AtomicLong conflated = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong emitted = new AtomicLong();
+
+  public FxRateConflator(Duration window, Consumer<FxRateEvent> processor, Materializer materializer) {
+    this.window = window;
+    this.processor = processor;
+    this.queue = isEnabled() ? runStream(materializer) : null;
+  }
+
+  public boolean isEnabled() {
+    return !window.isZero();
+  }
+
+  public void offer(FxRateEvent event) {
+    received.incrementAndGet();
+    if (!isEnabled()) {
+      emitted.incrementAndGet();
+      processor.accept(event);
+      return;
+    }
+    var result = queue.offer(event);
+    if (result != QueueOfferResult.enqueued()) {
+      dropped.incrementAndGet();
+      logger.warn("Conflation queue rejected rate for {}: {}", key(event), result);
+    }
+  }
+
+  public Stats stats() {
+    return new Stats(window.toMillis(), received.get(), conflated.get(), dropped.get(), emitted.get());
+  }
+
+  private BoundedSourceQueue<FxRateEvent> runStream(Materializer materializer) {
+    return Source.<FxRateEvent>queue(BUFFER_SIZE)
+        .conflateWithSeed(
+            event -> {
+              var latest = new LinkedHashMap<String, FxRateEvent>();
+              latest.put(key(event), event);
+              return latest;
+            },
+            (latest, event) -> {
+              if (latest.put(key(event), event) != null) {
+                conflated.incrementAndGet();
+              }
+              return latest;
+            })
+        .throttle(1, window)
+        .mapAsync(1, this::processWindow)
+        .to(Sink.ignore())
+        .run(materializer);
+  }
+
+  private CompletableFuture<Void> processWindow(LinkedHashMap<String, FxRateEvent> latest) {
+    var futures = latest.values().stream()
+        .map(event -> CompletableFuture.runAsync(() -> process(event), executor))
+        .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(futures);
+  }
+
+  private void process(FxRateEvent event) {
+    emitted.incrementAndGet();
+    try {
+      processor.accept(event);
+    } catch (Exception e) {
+      logger.error("Failed processing conflated rate for {}", key(event), e);
+    }
+  }
+
+  private static String key(FxRateEvent event) {
+    return event.instrument().ccyPair() + "/" + event.instrument().tenor();
+  }
+}
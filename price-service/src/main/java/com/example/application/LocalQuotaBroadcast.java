@@ -0,0 +1,49 @@
+package com.example.application;
+
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.BoundedSourceQueue;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.BroadcastHub;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.example.domain.Quota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Node-local hub for quotas that never go through the journal (see {@link PriceRateFastPath}).
+ * SSE endpoints merge it with the Quota View stream. A draining subscriber is always attached, so the hub never
+ * backpressures while no SSE client is connected. Nothing is replayed: a new client only gets quotas published
+ * after it attached, the latest quotas of a pair are in {@link QuotaCache}.
+ */
+public class LocalQuotaBroadcast {
+
+  private static final Logger logger = LoggerFactory.getLogger(LocalQuotaBroadcast.class);
+  private static final int BUFFER_SIZE = 4096;
+
+  private final BoundedSourceQueue<Quota> queue;
+  private final Source<Quota, NotUsed> source;
+
+  public LocalQuotaBroadcast(Materializer materializer) {
+    Pair<BoundedSourceQueue<Quota>, Source<Quota, NotUsed>> materialized = Source.<Quota>queue(BUFFER_SIZE)
+        .toMat(BroadcastHub.of(Quota.class), Keep.both())
+        .run(materializer);
+    this.queue = materialized.first();
+    this.source = materialized.second();
+    source.runWith(Sink.ignore(), materializer);
+  }
+
+  public void publish(Quota quota) {
+    var result = queue.offer(quota);
+    if (result != QueueOfferResult.enqueued()) {
+      logger.warn("Local quota broadcast rejected quota {}/{}: {}", quota.quotaId(), quota.ccyPair(), result);
+    }
+  }
+
+  public Source<Quota, NotUsed> getSource() {
+    return source;
+  }
+}
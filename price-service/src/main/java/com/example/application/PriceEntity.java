@@ -6,7 +6,6 @@ import akka.javasdk.eventsourcedentity.EventSourcedEntity;
 import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
 import com.example.domain.*;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,14 +21,68 @@ public class PriceEntity extends EventSourcedEntity<Price, PriceEvent> {
 
   @Override
   public Price emptyState() {
-    return new Price(entityId, List.of(), Optional.empty());
+    return Price.empty(entityId);
   }
 
-  public record PriceRateUpdate(String tenor, double bid, double ask, long seq, long tsMs, List<PriceRateClientQuota> quotas, Optional<String> priceRateId) {
+  /**
+   * {@code forwards} are tenors priced off this (spot) rate; they get their own priceRateId, and their quotas for the
+   * same subscribers are derived from the spot quotas (see {@link ForwardPriceRate#quotasFor}). Not supported in
+   * compact mode.
+   */
+  public record PriceRateUpdate(String tenor, double bid, double ask, long seq, long tsMs, List<PriceRateClientQuota> quotas, Optional<String> priceRateId, boolean compact, List<TenorRate> forwards) {
+    public PriceRateUpdate(String tenor, double bid, double ask, long seq, long tsMs, List<PriceRateClientQuota> quotas, Optional<String> priceRateId, boolean compact) {
+      this(tenor, bid, ask, seq, tsMs, quotas, priceRateId, compact, List.of());
+    }
+    public PriceRateUpdate(String tenor, double bid, double ask, long seq, long tsMs, List<PriceRateClientQuota> quotas, Optional<String> priceRateId) {
+      this(tenor, bid, ask, seq, tsMs, quotas, priceRateId, false);
+    }
     public PriceRateUpdate(String tenor, double bid, double ask, long seq, long tsMs, List<PriceRateClientQuota> quotas) {
       this(tenor, bid, ask, seq, tsMs, quotas, Optional.empty());
     }
   }
+  /**
+   * A tick quoted from the subscriber terms held in the entity state, so the caller needs neither the subscriber
+   * list nor their credit. Same persistence as {@link #priceRateUpdate}.
+   */
+  public record PriceRateTick(String tenor, double bid, double ask, long seq, long tsMs, Optional<String> priceRateId, boolean compact, List<TenorRate> forwards) {
+    public PriceRateTick(String tenor, double bid, double ask, long seq, long tsMs) {
+      this(tenor, bid, ask, seq, tsMs, Optional.empty(), false, List.of());
+    }
+  }
+
+  public record SubscriberTermsUpdate(String clientId, CreditStatus creditStatus, double markup) {}
+
+  public record SubscriberMarkupUpdate(String clientId, double markup) {}
+
+  public Effect<Done> priceRateTick(PriceRateTick tick) {
+    // compact readers derive quotaIds from (priceRateId, clientId)
+    var quotas = currentState().quotas(() -> tick.compact() ? "" : UUID.randomUUID().toString());
+    return priceRateUpdate(new PriceRateUpdate(tick.tenor(), tick.bid(), tick.ask(), tick.seq(), tick.tsMs(), quotas, tick.priceRateId(), tick.compact(), tick.forwards()));
+  }
+
+  public Effect<Done> updateSubscriberTerms(SubscriberTermsUpdate update) {
+    var terms = new SubscriberTerms(update.creditStatus(), update.markup());
+    if (!currentState().isSubscribed(update.clientId()) || currentState().termsOf(update.clientId()).equals(terms)) {
+      return effects().reply(Done.getInstance());
+    }
+    return effects()
+            .persist(new PriceEvent.SubscriberTermsUpdated(update.clientId(), terms))
+            .thenReply(s -> Done.getInstance());
+  }
+
+  /**
+   * Re-applies a subscriber's markup after the spread configuration changed, keeping its credit status.
+   */
+  public Effect<Done> updateSubscriberMarkup(SubscriberMarkupUpdate update) {
+    var current = currentState().termsOf(update.clientId());
+    if (!currentState().isSubscribed(update.clientId()) || current.markup() == update.markup()) {
+      return effects().reply(Done.getInstance());
+    }
+    return effects()
+            .persist(new PriceEvent.SubscriberTermsUpdated(update.clientId(), new SubscriberTerms(current.creditStatus(), update.markup())))
+            .thenReply(s -> Done.getInstance());
+  }
+
   public Effect<Done> priceRateUpdate(PriceRateUpdate update) {
     if (!currentState().hasSubscriptions()) {
       return effects().reply(Done.getInstance());
@@ -40,8 +93,47 @@ public class PriceEntity extends EventSourcedEntity<Price, PriceEvent> {
 
     var priceRateId = update.priceRateId().orElse(UUID.randomUUID().toString());
     var priceRate = new PriceRate(priceRateId, update.tenor(), update.bid(), update.ask(), update.seq(), update.tsMs());
+    if (update.compact()) {
+      return compactPriceRateUpdate(priceRate, update.quotas());
+    }
+    var forwards = update.forwards().stream()
+            .map(forward -> new ForwardPriceRate(new PriceRate(ForwardPriceRate.priceRateId(priceRateId, forward.tenor()),
+                    forward.tenor(), forward.bid(), forward.ask(), update.seq(), update.tsMs())))
+            .toList();
+    return effects()
+            .persist(new PriceEvent.PriceRateAdded(entityId, priceRate, update.quotas(), forwards))
+            .thenReply(s -> Done.getInstance());
+  }
+
+  // persists a new subscriber snapshot only when subscribers, their credit or their markups changed since the last one
+  private Effect<Done> compactPriceRateUpdate(PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+    var subscribers = quotas.stream()
+            .map(q -> new SubscriberCredit(q.clientId(), q.creditStatus(), q.markup()))
+            .toList();
+    var existingSnapshotId = currentState().matchingSnapshotId(subscribers);
+    if (existingSnapshotId.isPresent()) {
+      return effects()
+              .persist(new PriceEvent.CompactPriceRateAdded(entityId, priceRate, existingSnapshotId.get()))
+              .thenReply(s -> Done.getInstance());
+    }
+    var version = currentState().nextSnapshotVersion();
+    var snapshotId = SubscriberSnapshot.snapshotId(entityId, version);
+    return effects()
+            .persistAll(List.of(
+                    new PriceEvent.SubscriberSnapshotUpdated(entityId, snapshotId, version, subscribers),
+                    new PriceEvent.CompactPriceRateAdded(entityId, priceRate, snapshotId)))
+            .thenReply(s -> Done.getInstance());
+  }
+
+  public Effect<Done> checkpointPriceRate(PriceRate priceRate) {
+    var alreadyCheckpointed = currentState().lastPriceRate()
+            .map(last -> last.priceRateId().equals(priceRate.priceRateId()))
+            .orElse(false);
+    if (alreadyCheckpointed) {
+      return effects().reply(Done.getInstance());
+    }
     return effects()
-            .persist(new PriceEvent.PriceRateAdded(entityId, priceRate, update.quotas()))
+            .persist(new PriceEvent.PriceRateCheckpointed(entityId, priceRate))
             .thenReply(s -> Done.getInstance());
   }
 
@@ -64,6 +156,20 @@ public class PriceEntity extends EventSourcedEntity<Price, PriceEvent> {
     if (!currentState().isSubscribed(clientId)) {
       return effects().error("Client " + clientId + " is not subscribed");
     }
+    return persistUnsubscribed(clientId);
+  }
+
+  /**
+   * Idempotent {@link #unsubscribe}, for ClientWorkflow which repeats the call when it resumes a queued operation.
+   */
+  public Effect<Done> ensureUnsubscribed(String clientId) {
+    if (!currentState().isSubscribed(clientId)) {
+      return effects().reply(Done.getInstance());
+    }
+    return persistUnsubscribed(clientId);
+  }
+
+  private Effect<Done> persistUnsubscribed(String clientId) {
     var unsubscribed = new PriceEvent.Unsubscribed(clientId);
     if (currentState().subscriptions().size() == 1) {
       return effects()
@@ -76,7 +182,7 @@ public class PriceEntity extends EventSourcedEntity<Price, PriceEvent> {
   }
 
   public ReadOnlyEffect<List<String>> getSubscriptions() {
-    return effects().reply(currentState().subscriptions());
+    return effects().reply(List.copyOf(currentState().subscriptions()));
   }
   public ReadOnlyEffect<Optional<PriceRate>> getLastPriceRate() {
     return effects().reply(currentState().lastPriceRate());
@@ -88,6 +194,10 @@ public class PriceEntity extends EventSourcedEntity<Price, PriceEvent> {
       case PriceEvent.Subscribed e -> currentState().withSubscription(e.clientId());
       case PriceEvent.Unsubscribed e -> currentState().withoutSubscription(e.clientId());
       case PriceEvent.PriceRateAdded e -> currentState().withPriceRate(e.priceRate());
+      case PriceEvent.SubscriberTermsUpdated e -> currentState().withSubscriberTerms(e.clientId(), e.terms());
+      case PriceEvent.SubscriberSnapshotUpdated e -> currentState().withSubscriberSnapshot(e.snapshotId(), e.version(), e.subscribers());
+      case PriceEvent.CompactPriceRateAdded e -> currentState().withPriceRate(e.priceRate());
+      case PriceEvent.PriceRateCheckpointed e -> currentState().withPriceRate(e.priceRate());
       default -> currentState();
     };
   }
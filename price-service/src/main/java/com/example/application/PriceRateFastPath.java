@@ -0,0 +1,129 @@
+package com.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Source;
+import com.example.domain.Pips;
+import com.example.domain.PriceRate;
+import com.example.domain.PriceRateClientQuota;
+import com.example.domain.Quota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-durable tick path: quotas are broadcast in memory to SSE streams and put into the node-local
+ * {@link QuotaCache} for trade acceptance. Nothing is written per tick: the last rate of a pair is checkpointed
+ * to {@link PriceEntity}, and its quotas stored in {@link QuotaEntity}, every {@code checkpointInterval} or when
+ * mid moves by at least {@code checkpointMovePips} since the last checkpoint, so durable writes are bounded by
+ * the checkpoint policy rather than the feed rate.
+ *
+ * <p>Broadcast and cache are node-local: SSE clients connected to other nodes only see checkpointed rates, and
+ * quotes between checkpoints can only be accepted through the node that issued them.
+ */
+public class PriceRateFastPath {
+
+  private static final Logger logger = LoggerFactory.getLogger(PriceRateFastPath.class);
+
+  public record Settings(boolean enabled, Duration checkpointInterval, double checkpointMovePips) {}
+
+  private record PairState(PriceRate lastRate, List<PriceRateClientQuota> lastQuotas, PriceRate checkpointedRate, long checkpointedAtMs) {
+    boolean isCheckpointed() {
+      return lastRate.equals(checkpointedRate);
+    }
+  }
+
+  private final ComponentClient componentClient;
+  private final LocalQuotaBroadcast localQuotaBroadcast;
+  private final Settings settings;
+  private final QuotaExpiry quotaExpiry;
+  private final QuotaCache quotaCache;
+  private final ConcurrentHashMap<String, PairState> pairs = new ConcurrentHashMap<>();
+
+  public PriceRateFastPath(ComponentClient componentClient, LocalQuotaBroadcast localQuotaBroadcast, Settings settings, QuotaExpiry quotaExpiry, QuotaCache quotaCache, Materializer materializer) {
+    this.componentClient = componentClient;
+    this.localQuotaBroadcast = localQuotaBroadcast;
+    this.settings = settings;
+    this.quotaExpiry = quotaExpiry;
+    this.quotaCache = quotaCache;
+    if (settings.enabled()) {
+      // checkpoints the last rate of pairs that went quiet before their interval elapsed
+      Source.tick(settings.checkpointInterval(), settings.checkpointInterval(), "flush")
+          .runForeach(tick -> flushPendingCheckpoints(), materializer);
+    }
+  }
+
+  public boolean isEnabled() {
+    return settings.enabled();
+  }
+
+  public void publish(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+    var now = System.currentTimeMillis();
+    var changed = new boolean[1];
+    var checkpointDue = new boolean[1];
+    // one atomic update per tick, so concurrent ticks of a pair neither lose a state nor both checkpoint
+    pairs.compute(ccyPair, (key, previous) -> {
+      if (previous != null && previous.lastRate().bid() == priceRate.bid() && previous.lastRate().ask() == priceRate.ask()) {
+        return previous;
+      }
+      changed[0] = true;
+      if (previous == null || shouldCheckpoint(ccyPair, previous, priceRate, now)) {
+        checkpointDue[0] = true;
+        return new PairState(priceRate, quotas, priceRate, now);
+      }
+      return new PairState(priceRate, quotas, previous.checkpointedRate(), previous.checkpointedAtMs());
+    });
+    if (!changed[0]) {
+      return;
+    }
+
+    quotaCache.put(ccyPair, priceRate, quotas);
+    quotas.forEach(pq -> localQuotaBroadcast.publish(Quota.of(ccyPair, priceRate, pq)));
+    if (checkpointDue[0]) {
+      checkpoint(ccyPair, priceRate, quotas);
+    }
+  }
+
+  private boolean shouldCheckpoint(String ccyPair, PairState previous, PriceRate priceRate, long now) {
+    if (now - previous.checkpointedAtMs() >= settings.checkpointInterval().toMillis()) {
+      return true;
+    }
+    var checkpointedMid = (previous.checkpointedRate().bid() + previous.checkpointedRate().ask()) / 2;
+    var mid = (priceRate.bid() + priceRate.ask()) / 2;
+    return Pips.between(ccyPair, checkpointedMid, mid) >= settings.checkpointMovePips();
+  }
+
+  private void flushPendingCheckpoints() {
+    var now = System.currentTimeMillis();
+    pairs.forEach((ccyPair, state) -> {
+      if (!state.isCheckpointed() && now - state.checkpointedAtMs() >= settings.checkpointInterval().toMillis()) {
+        var checkpointed = new PairState(state.lastRate(), state.lastQuotas(), state.lastRate(), now);
+        if (pairs.replace(ccyPair, state, checkpointed)) {
+          checkpoint(ccyPair, state.lastRate(), state.lastQuotas());
+        }
+      }
+    });
+  }
+
+  private void checkpoint(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+    logger.debug("Checkpointing {} priceRateId {}", ccyPair, priceRate.priceRateId());
+    componentClient.forKeyValueEntity(priceRate.priceRateId())
+        .method(QuotaEntity::add)
+        .invokeAsync(new QuotaEntity.AddCommand(ccyPair, priceRate, quotas, Optional.empty(), quotaExpiry.expiresAt(priceRate.timestamp())))
+        .exceptionally(e -> {
+          logger.error("Failed storing fast path quotas for priceRateId {}", priceRate.priceRateId(), e);
+          return null;
+        });
+    componentClient.forEventSourcedEntity(ccyPair)
+        .method(PriceEntity::checkpointPriceRate)
+        .invokeAsync(priceRate)
+        .exceptionally(e -> {
+          logger.error("Failed checkpointing {} priceRateId {}", ccyPair, priceRate.priceRateId(), e);
+          return null;
+        });
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.example.domain.FxRateEvent;
+import com.example.domain.PriceRate;
+import com.example.domain.TenorRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds the per-client quotas for a tick and hands them to {@link PriceEntity}. Ticks of pairs with subscribers
+ * go through the {@link PriceRateThrottle} first; a suppressed tick is published later by its trailing timer
+ * through {@link #publish}.
+ *
+ * <p>Used by {@link FxRateConsumer} (via the conflation stage) and by the rate simulation endpoint.
+ */
+public class PriceRateProcessor {
+
+  private static final Logger logger = LoggerFactory.getLogger(PriceRateProcessor.class);
+
+  /**
+   * {@code entityQuotas}: quote ticks from the subscriber terms denormalized into {@link PriceEntity}
+   * (one call per tick) instead of resolving subscribers and credit here. {@code compactEvents} always quotes
+   * that way, so a tick carries only the rate and the entity reduces its own subscriber terms to a snapshot.
+   */
+  public record Settings(boolean compactEvents, boolean entityQuotas) {}
+
+  private final ComponentClient componentClient;
+  private final SubscriberCreditCache subscriberCreditCache;
+  private final PriceRateFastPath priceRateFastPath;
+  private final PriceRateThrottle priceRateThrottle;
+  private final ForwardCurveEngine forwardCurveEngine;
+  private final ClientSpreadEngine clientSpreadEngine;
+  private final Settings settings;
+
+  public PriceRateProcessor(ComponentClient componentClient, SubscriberCreditCache subscriberCreditCache, PriceRateFastPath priceRateFastPath, PriceRateThrottle priceRateThrottle, ForwardCurveEngine forwardCurveEngine, ClientSpreadEngine clientSpreadEngine, Settings settings) {
+    this.componentClient = componentClient;
+    this.subscriberCreditCache = subscriberCreditCache;
+    this.priceRateFastPath = priceRateFastPath;
+    this.priceRateThrottle = priceRateThrottle;
+    this.forwardCurveEngine = forwardCurveEngine;
+    this.clientSpreadEngine = clientSpreadEngine;
+    this.settings = settings;
+  }
+
+  public void process(FxRateEvent event) {
+    process(event.instrument().ccyPair(), event.instrument().tenor(), event.bid(), event.ask(), event.seq(), event.tsMs(), Optional.empty());
+  }
+
+  public void process(String ccyPair, String tenor, double bid, double ask, long seq, long tsMs, Optional<String> priceRateId) {
+    logger.info("Received FX rate event for {} tenor {} bid {} ask {} maybePriceRateId {}", ccyPair, tenor,  bid,  ask, priceRateId);
+    var tick = new PriceRateThrottle.Tick(ccyPair, tenor, bid, ask, seq, tsMs, priceRateId);
+    // without subscribers nothing is quoted, so the tick must not count as published for the throttle
+    var hasSubscribers = subscriberCreditCache.subscribers(ccyPair).map(subscribers -> !subscribers.isEmpty()).orElse(true);
+    if (hasSubscribers && !priceRateThrottle.tryPublish(tick, System.currentTimeMillis())) {
+      logger.debug("Rate for {} tenor {} held back by publish policy", ccyPair, tenor);
+      return;
+    }
+    publish(tick);
+  }
+
+  /**
+   * Quotes a tick that passed the publish policy.
+   */
+  public void publish(PriceRateThrottle.Tick tick) {
+    var ccyPair = tick.ccyPair();
+    var tenor = tick.tenor();
+    var bid = tick.bid();
+    var ask = tick.ask();
+    var seq = tick.seq();
+    var tsMs = tick.tsMs();
+    var priceRateId = tick.priceRateId();
+    // the fast path publishes spot quotes only, forward tenors are not priced there
+    if (priceRateFastPath.isEnabled()) {
+      var subscribers = subscriberCreditCache.subscribers(ccyPair)
+              .orElseGet(() -> querySubscribers(ccyPair));
+      var quotas = clientSpreadEngine.quotas(ccyPair, subscribers, () -> UUID.randomUUID().toString());
+      if (!quotas.isEmpty()) {
+        var priceRate = new PriceRate(priceRateId.orElse(UUID.randomUUID().toString()), tenor, bid, ask, seq, tsMs);
+        priceRateFastPath.publish(ccyPair, priceRate, quotas);
+      }
+      return;
+    }
+
+    // forward tenors ride on the spot update; the compact event format has no room for them
+    var forwards = settings.compactEvents() ? List.<TenorRate>of() : forwardCurveEngine.forwards(ccyPair, tenor, bid, ask);
+    if (settings.entityQuotas() || settings.compactEvents()) {
+      componentClient.forEventSourcedEntity(ccyPair)
+              .method(PriceEntity::priceRateTick)
+              .invoke(new PriceEntity.PriceRateTick(tenor, bid, ask, seq, tsMs, priceRateId, settings.compactEvents(), forwards));
+      return;
+    }
+
+    var subscribers = subscriberCreditCache.subscribers(ccyPair)
+            .orElseGet(() -> querySubscribers(ccyPair));
+    var quotas = clientSpreadEngine.quotas(ccyPair, subscribers, () -> UUID.randomUUID().toString());
+
+    if(!quotas.isEmpty()) {
+      componentClient.forEventSourcedEntity(ccyPair)
+              .method(PriceEntity::priceRateUpdate)
+              .invoke(new PriceEntity.PriceRateUpdate(tenor, bid, ask, seq, tsMs, quotas, priceRateId, false, forwards));
+    }
+  }
+
+  // fallback while the node-local cache is still warming up for this pair
+  private List<ClientView.ClientEntry> querySubscribers(String ccyPair) {
+    logger.debug("Subscriber cache miss for {}, querying subscriber credit view", ccyPair);
+    return componentClient.forView()
+            .method(SubscriberCreditView::getByCcyPair)
+            .invoke(ccyPair)
+            .entries().stream()
+            .map(SubscriberCreditView.SubscriberEntry::toClientEntry)
+            .toList();
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.application;
 
+import akka.Done;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
@@ -9,6 +10,11 @@ import com.example.domain.PriceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 
 @Component(id = "price-rate-quota-store-consumer")
 @Consume.FromEventSourcedEntity(PriceEntity.class)
@@ -18,30 +24,59 @@ public class PriceRateQuotaStoreConsumer extends Consumer {
 
   private final ComponentClient componentClient;
   private final Materializer materializer;
+  private final QuotaExpiry quotaExpiry;
+  private final QuotaStoreWriter quotaStoreWriter;
 
-  public PriceRateQuotaStoreConsumer(ComponentClient componentClient, Materializer materializer) {
+  public PriceRateQuotaStoreConsumer(ComponentClient componentClient, Materializer materializer, QuotaExpiry quotaExpiry, QuotaStoreWriter quotaStoreWriter) {
     this.componentClient = componentClient;
     this.materializer = materializer;
+    this.quotaExpiry = quotaExpiry;
+    this.quotaStoreWriter = quotaStoreWriter;
   }
 
   public Effect onEvent(PriceEvent event) {
     return switch (event) {
       case PriceEvent.PriceRateAdded e -> {
-        logger.info("Price rate priceRateId {} added for {}",e.priceRate().priceRateId(), e.ccyPair());
-        boolean isEventLocal = messageContext().originRegion().isPresent()?messageContext().originRegion().get().equals(messageContext().selfRegion()):true;
-        // only do this for a consumer that is in the same region where the event originated
-        if(isEventLocal) {
-          if (!e.quotas().isEmpty()) {
-            componentClient.forKeyValueEntity(e.priceRate().priceRateId())
-                    .method(QuotaEntity::add)
-                    .invoke(new QuotaEntity.AddCommand(e.ccyPair(), e.priceRate(), e.quotas()));
+        logger.debug("Price rate priceRateId {} added for {}",e.priceRate().priceRateId(), e.ccyPair());
+        if (isEventLocal() && !e.quotas().isEmpty()) {
+          var expiresAt = quotaExpiry.expiresAt(e.priceRate().timestamp());
+          var writes = new ArrayList<CompletableFuture<Done>>();
+          writes.add(quotaStoreWriter.add(e.priceRate().priceRateId(),
+                  new QuotaEntity.AddCommand(e.ccyPair(), e.priceRate(), e.quotas(), Optional.empty(), expiresAt)).toCompletableFuture());
+          for (var forward : e.forwards()) {
+            writes.add(quotaStoreWriter.add(forward.priceRate().priceRateId(),
+                    new QuotaEntity.AddCommand(e.ccyPair(), forward.priceRate(), forward.quotasFor(e.quotas()), Optional.empty(), expiresAt)).toCompletableFuture());
           }
+          // acknowledged once every quota of the rate is stored
+          yield effects().asyncDone(CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).thenApply(v -> Done.getInstance()));
+        }
+        yield effects().done();
+      }
+      case PriceEvent.SubscriberSnapshotUpdated e -> {
+        logger.info("Subscriber snapshot {} updated for {}", e.snapshotId(), e.ccyPair());
+        if (isEventLocal()) {
+          componentClient.forKeyValueEntity(e.snapshotId())
+                  .method(SubscriberSnapshotEntity::set)
+                  .invoke(new SubscriberSnapshotEntity.SetCommand(e.version(), e.subscribers()));
+        }
+        yield effects().done();
+      }
+      case PriceEvent.CompactPriceRateAdded e -> {
+        logger.debug("Compact price rate priceRateId {} added for {} snapshot {}", e.priceRate().priceRateId(), e.ccyPair(), e.snapshotId());
+        if (isEventLocal()) {
+          // stored compact (rate + snapshot reference); a lookup materializes the client's quota from the snapshot,
+          // which was written above before this rate
+          yield effects().asyncDone(quotaStoreWriter.add(e.priceRate().priceRateId(),
+                  new QuotaEntity.AddCommand(e.ccyPair(), e.priceRate(), List.of(), Optional.of(e.snapshotId()), quotaExpiry.expiresAt(e.priceRate().timestamp()))));
         }
-
-
         yield effects().done();
       }
       default -> effects().ignore();
     };
   }
+
+  // only do this for a consumer that is in the same region where the event originated
+  private boolean isEventLocal() {
+    return messageContext().originRegion().isPresent()?messageContext().originRegion().get().equals(messageContext().selfRegion()):true;
+  }
 }
\ No newline at end of file
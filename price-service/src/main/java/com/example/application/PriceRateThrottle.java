@@ -0,0 +1,140 @@
+package com.example.application;
+
+import akka.stream.Materializer;
+import akka.stream.javadsl.Source;
+import com.example.domain.PublishPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Applies the {@link PublishPolicy} of each ccyPair to incoming ticks, before any quota is built or
+ * {@link PriceEntity} is called. Keeps the last published tick per ccyPair/tenor on this node.
+ *
+ * <p>A suppressed tick is not thrown away: the latest one per ccyPair/tenor is kept, and a trailing timer
+ * ({@link #runTrailing}) publishes it once the policy allows, so the last price of a burst and a refresh after
+ * {@code refreshInterval} go out even when no further tick arrives.
+ *
+ * <p>Opt-in: a disabled throttle publishes every tick.
+ */
+public class PriceRateThrottle {
+
+  private static final Logger logger = LoggerFactory.getLogger(PriceRateThrottle.class);
+
+  public record Stats(long published, long filtered, long superseded, long trailing) {}
+
+  public record Tick(String ccyPair, String tenor, double bid, double ask, long seq, long tsMs, Optional<String> priceRateId) {}
+
+  // pending is the latest suppressed tick, null when the last tick was published
+  private record KeyState(PublishPolicy.Published published, Tick pending) {}
+
+  private final boolean enabled;
+  private final PublishPolicy defaultPolicy;
+  private final Map<String, PublishPolicy> policiesByCcyPair;
+  private final ConcurrentHashMap<String, KeyState> lastPublished = new ConcurrentHashMap<>();
+
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong filtered = new AtomicLong();
+  private final AtomicLong superseded = new AtomicLong();
+  private final AtomicLong trailing = new AtomicLong();
+
+  public PriceRateThrottle(PublishPolicy defaultPolicy, Map<String, PublishPolicy> policiesByCcyPair) {
+    this(true, defaultPolicy, policiesByCcyPair);
+  }
+
+  public PriceRateThrottle(boolean enabled, PublishPolicy defaultPolicy, Map<String, PublishPolicy> policiesByCcyPair) {
+    this.enabled = enabled;
+    this.defaultPolicy = defaultPolicy;
+    this.policiesByCcyPair = Map.copyOf(policiesByCcyPair);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean tryPublish(Tick tick, long nowMs) {
+    if (!enabled) {
+      published.incrementAndGet();
+      return true;
+    }
+    var policy = policyOf(tick.ccyPair());
+    var accepted = new boolean[1];
+    lastPublished.compute(key(tick), (key, last) -> {
+      accepted[0] = policy.shouldPublish(tick.ccyPair(), last == null ? null : last.published(), tick.bid(), tick.ask(), nowMs);
+      if (accepted[0]) {
+        return new KeyState(new PublishPolicy.Published(tick.bid(), tick.ask(), nowMs), null);
+      }
+      if (last.pending() != null) {
+        superseded.incrementAndGet();
+      }
+      return new KeyState(last.published(), tick);
+    });
+    (accepted[0] ? published : filtered).incrementAndGet();
+    return accepted[0];
+  }
+
+  /**
+   * Takes the suppressed ticks the policy now allows, marking them as published.
+   */
+  public List<Tick> takeDue(long nowMs) {
+    var due = new ArrayList<Tick>();
+    // compute runs the function exactly once per key, so a due tick is taken only once
+    for (var key : lastPublished.keySet()) {
+      lastPublished.computeIfPresent(key, (k, state) -> {
+        var pending = state.pending();
+        if (pending == null) {
+          return state;
+        }
+        if (pending.bid() == state.published().bid() && pending.ask() == state.published().ask()) {
+          // moved back to the published price, nothing to send
+          return new KeyState(state.published(), null);
+        }
+        if (!policyOf(pending.ccyPair()).shouldPublish(pending.ccyPair(), state.published(), pending.bid(), pending.ask(), nowMs)) {
+          return state;
+        }
+        due.add(pending);
+        return new KeyState(new PublishPolicy.Published(pending.bid(), pending.ask(), nowMs), null);
+      });
+    }
+    trailing.addAndGet(due.size());
+    published.addAndGet(due.size());
+    return due;
+  }
+
+  /**
+   * Checks for due suppressed ticks every {@code interval} and hands them to {@code publisher}.
+   */
+  public void runTrailing(Duration interval, Consumer<Tick> publisher, Materializer materializer) {
+    if (!enabled) {
+      return;
+    }
+    Source.tick(interval, interval, "trailing")
+        .runForeach(t -> takeDue(System.currentTimeMillis()).forEach(tick -> {
+          try {
+            publisher.accept(tick);
+          } catch (Exception e) {
+            logger.error("Failed publishing held back rate for {} tenor {}", tick.ccyPair(), tick.tenor(), e);
+          }
+        }), materializer);
+  }
+
+  public Stats stats() {
+    return new Stats(published.get(), filtered.get(), superseded.get(), trailing.get());
+  }
+
+  private PublishPolicy policyOf(String ccyPair) {
+    return policiesByCcyPair.getOrDefault(ccyPair, defaultPolicy);
+  }
+
+  private static String key(Tick tick) {
+    return tick.ccyPair() + "/" + tick.tenor();
+  }
+}
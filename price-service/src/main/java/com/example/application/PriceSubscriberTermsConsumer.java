@@ -0,0 +1,43 @@
+package com.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import com.example.domain.ClientWorkflowState;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Copies each client's credit status and spread markup into the {@link PriceEntity} of every pair it is subscribed
+ * to, so ticks can be quoted by {@link PriceEntity#priceRateTick} without looking up subscribers and their credit.
+ *
+ * <p>Only pairs whose subscription has completed are copied. Every state change is copied: the entity ignores
+ * unchanged terms, and it is the only place that knows what it holds (consumer slices move between nodes, so
+ * nothing node-local can tell a change apart). A changed spread configuration is re-applied by
+ * {@link SubscriberTermsResync} at startup.
+ */
+@Component(id = "price-subscriber-terms-consumer")
+@Consume.FromWorkflow(ClientWorkflow.class)
+public class PriceSubscriberTermsConsumer extends Consumer {
+
+  private final ComponentClient componentClient;
+  private final ClientSpreadEngine clientSpreadEngine;
+
+  public PriceSubscriberTermsConsumer(ComponentClient componentClient, ClientSpreadEngine clientSpreadEngine) {
+    this.componentClient = componentClient;
+    this.clientSpreadEngine = clientSpreadEngine;
+  }
+
+  public Effect onUpdate(ClientWorkflowState state) {
+    var futures = state.activeSubscriptions().stream()
+        .map(ccyPair -> componentClient.forEventSourcedEntity(ccyPair)
+            .method(PriceEntity::updateSubscriberTerms)
+            .invokeAsync(new PriceEntity.SubscriberTermsUpdate(state.clientId(), state.creditStatus(), clientSpreadEngine.markup(ccyPair, state.clientId())))
+            .toCompletableFuture())
+        .toArray(CompletableFuture[]::new);
+    // acknowledged once stored, a failure redelivers the state
+    return effects().asyncDone(CompletableFuture.allOf(futures).thenApply(v -> Done.getInstance()));
+  }
+}
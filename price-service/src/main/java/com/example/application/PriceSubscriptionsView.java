@@ -0,0 +1,56 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.example.domain.PriceEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component(id = "price-subscriptions-view")
+public class PriceSubscriptionsView extends View {
+
+  public record SubscriptionsEntry(String ccyPair, List<String> clientIds) {
+
+    public SubscriptionsEntry withClient(String clientId) {
+      if (clientIds.contains(clientId)) {
+        return this;
+      }
+      var updated = new ArrayList<>(clientIds);
+      updated.add(clientId);
+      return new SubscriptionsEntry(ccyPair, List.copyOf(updated));
+    }
+
+    public SubscriptionsEntry withoutClient(String clientId) {
+      var updated = new ArrayList<>(clientIds);
+      updated.remove(clientId);
+      return new SubscriptionsEntry(ccyPair, List.copyOf(updated));
+    }
+  }
+
+  @Consume.FromEventSourcedEntity(PriceEntity.class)
+  public static class SubscriptionsUpdater extends TableUpdater<SubscriptionsEntry> {
+
+    public Effect<SubscriptionsEntry> onEvent(PriceEvent event) {
+      return switch (event) {
+        case PriceEvent.Subscribed e -> effects().updateRow(currentRow().withClient(e.clientId()));
+        case PriceEvent.Unsubscribed e -> effects().updateRow(currentRow().withoutClient(e.clientId()));
+        default -> effects().ignore();
+      };
+    }
+
+    private SubscriptionsEntry currentRow() {
+      return rowState() == null
+          ? new SubscriptionsEntry(updateContext().eventSubject().orElse(""), List.of())
+          : rowState();
+    }
+  }
+
+  @Query(value = "SELECT * FROM price_subscriptions", streamUpdates = true)
+  public QueryStreamEffect<SubscriptionsEntry> streamAll() {
+    return queryStreamResult();
+  }
+}
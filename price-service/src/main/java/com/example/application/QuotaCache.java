@@ -0,0 +1,125 @@
+package com.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import akka.stream.Materializer;
+import akka.stream.RestartSettings;
+import akka.stream.javadsl.RestartSource;
+import akka.stream.javadsl.Sink;
+import com.example.domain.PriceRate;
+import com.example.domain.PriceRateClientQuota;
+import com.example.domain.Quota;
+import com.example.domain.QuotaState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local cache of recently issued quotas by priceRateId, so trade acceptance, which almost always
+ * happens within seconds of a quote, rarely needs a {@link QuotaEntity} call.
+ *
+ * <p>Fed directly by {@link PriceRateFastPath} and, with {@code followQuotaView}, from the {@link QuotaView} update
+ * stream (rows whose rate was issued within {@code ttl} before the node start, or later). That stream runs on every node for as long as the node is up,
+ * regardless of SSE connections, which is why it is opt-in. Bounded to {@code maxEntries} rates, least recently
+ * used first out, and entries are only served for {@code ttl} after the rate was issued; a miss falls back to
+ * {@link QuotaEntity}.
+ */
+public class QuotaCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(QuotaCache.class);
+
+  public record Settings(boolean enabled, boolean followQuotaView, int maxEntries, Duration ttl) {}
+
+  public record Stats(int size, long hits, long misses, long evictions) {}
+
+  private final ComponentClient componentClient;
+  private final Settings settings;
+
+  // guarded by itself; access-ordered for LRU eviction
+  private final LinkedHashMap<String, QuotaState.Indexed> quotasByPriceRateId;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public QuotaCache(ComponentClient componentClient, Settings settings, Materializer materializer) {
+    this.componentClient = componentClient;
+    this.settings = settings;
+    this.quotasByPriceRateId = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, QuotaState.Indexed> eldest) {
+        if (size() > settings.maxEntries()) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+    if (settings.enabled() && settings.followQuotaView()) {
+      runQuotaStream(materializer);
+    }
+  }
+
+  public void put(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+    if (!settings.enabled() || quotas.isEmpty()) {
+      return;
+    }
+    var state = new QuotaState(ccyPair, priceRate, quotas, Optional.empty(), priceRate.timestamp() + settings.ttl().toMillis()).indexed();
+    synchronized (quotasByPriceRateId) {
+      quotasByPriceRateId.put(priceRate.priceRateId(), state);
+    }
+  }
+
+  public Optional<Quota> get(String priceRateId, String clientId) {
+    if (!settings.enabled()) {
+      return Optional.empty();
+    }
+    Optional<Quota> quota;
+    synchronized (quotasByPriceRateId) {
+      var state = quotasByPriceRateId.get(priceRateId);
+      if (state != null && state.state().isExpired(System.currentTimeMillis())) {
+        quotasByPriceRateId.remove(priceRateId);
+        evictions.incrementAndGet();
+        state = null;
+      }
+      quota = state == null ? Optional.empty() : state.quota(clientId);
+    }
+    (quota.isPresent() ? hits : misses).incrementAndGet();
+    return quota;
+  }
+
+  public Stats stats() {
+    int size;
+    synchronized (quotasByPriceRateId) {
+      size = quotasByPriceRateId.size();
+    }
+    return new Stats(size, hits.get(), misses.get(), evictions.get());
+  }
+
+  private void runQuotaStream(Materializer materializer) {
+    // rows are positioned by rate timestamp; older rates are no longer served anyway
+    var since = System.currentTimeMillis() - settings.ttl().toMillis();
+    RestartSource.withBackoff(
+            RestartSettings.create(Duration.ofMillis(1000), Duration.ofMillis(100), 2.4),
+            () -> {
+              logger.warn("Restart quota cache stream");
+              return componentClient.forView()
+                  .stream(QuotaView::streamSince)
+                  .source(since);
+            })
+        .runWith(Sink.foreach(entry -> {
+          if (entry.priceRate() != null) {
+            var spotQuotas = entry.materializedQuotas();
+            put(entry.ccyPair(), entry.priceRate(), spotQuotas);
+            if (entry.forwards() != null) {
+              entry.forwards().forEach(f -> put(entry.ccyPair(), f.priceRate(), f.quotasFor(spotQuotas)));
+            }
+          }
+        }), materializer);
+  }
+}
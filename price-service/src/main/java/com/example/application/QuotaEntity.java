@@ -3,10 +3,12 @@ package com.example.application;
 import akka.Done;
 import akka.javasdk.annotations.Component;
 import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.example.domain.CreditStatus;
 import com.example.domain.PriceRate;
 import com.example.domain.PriceRateClientQuota;
 import com.example.domain.QuotaState;
 import com.example.domain.Quota;
+import com.example.domain.SubscriberCredit;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,22 +16,74 @@ import java.util.Optional;
 @Component(id = "price-rate-entity")
 public class QuotaEntity extends KeyValueEntity<QuotaState> {
 
-  public record AddCommand(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {}
+  /**
+   * {@code expiresAt} is the end of quote validity in epoch millis (see {@link QuotaExpiry}); 0 never expires.
+   */
+  public record AddCommand(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas, Optional<String> snapshotId, long expiresAt) {
+    public AddCommand(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+      this(ccyPair, priceRate, quotas, Optional.empty(), 0L);
+    }
+
+    public AddCommand(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas, Optional<String> snapshotId) {
+      this(ccyPair, priceRate, quotas, snapshotId, 0L);
+    }
+  }
+
+  /**
+   * Result of a lookup that may need the subscriber snapshot to complete: when {@code snapshotId} is present
+   * (compact rates) the quota carries the rate itself with {@link CreditStatus#UNKNOWN}, and is completed with the
+   * client's terms in that snapshot by {@link #withTerms}.
+   */
+  public record Lookup(Optional<Quota> quota, Optional<String> snapshotId) {
+    public static Lookup empty() {
+      return new Lookup(Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * The compact quota with the client's credit status and markup; empty if the client is not in the snapshot.
+     */
+    public Optional<Quota> withTerms(Optional<SubscriberCredit> subscriber) {
+      return quota.flatMap(q -> subscriber.map(s -> q.withCreditStatus(s.creditStatus()).withMarkup(s.markup())));
+    }
+  }
+
+  // clientId index of the current state, rebuilt when the state changes; not part of the persisted state
+  private QuotaState.Indexed indexed;
 
   public Effect<Done> add(AddCommand command) {
-    var state = new QuotaState(command.ccyPair(), command.priceRate(), command.quotas());
+    var state = new QuotaState(command.ccyPair(), command.priceRate(), command.quotas(), command.snapshotId(), command.expiresAt());
     return effects()
         .updateState(state)
         .thenReply(Done.getInstance());
   }
 
+  public Effect<Done> delete() {
+    return effects().deleteEntity().thenReply(Done.getInstance());
+  }
+
   public ReadOnlyEffect<Optional<Quota>> get(String clientId) {
-    if (currentState() == null) {
+    if (currentState() == null || currentState().isCompact() || currentState().isExpired(System.currentTimeMillis())) {
       return effects().reply(Optional.empty());
     }
-    return effects().reply(currentState().quotas().stream()
-        .filter(q -> q.clientId().equals(clientId))
-        .findFirst()
-            .map(pq -> new Quota(pq.quotaId(), currentState().priceRate().priceRateId(), pq.clientId(), currentState().ccyPair(), currentState().priceRate().tenor(), currentState().priceRate().bid(), currentState().priceRate().ask(), pq.creditStatus(),currentState().priceRate().timestamp())));
+    return effects().reply(indexed().quota(clientId));
+  }
+
+  public ReadOnlyEffect<Lookup> lookup(String clientId) {
+    if (currentState() == null || currentState().isExpired(System.currentTimeMillis())) {
+      return effects().reply(Lookup.empty());
+    }
+    if (currentState().isCompact()) {
+      return effects().reply(new Lookup(
+          Optional.of(currentState().compactQuota(clientId, CreditStatus.UNKNOWN)),
+          currentState().snapshotId()));
+    }
+    return effects().reply(new Lookup(indexed().quota(clientId), Optional.empty()));
+  }
+
+  private QuotaState.Indexed indexed() {
+    if (indexed == null || indexed.state() != currentState()) {
+      indexed = currentState().indexed();
+    }
+    return indexed;
   }
-}
\ No newline at end of file
+}
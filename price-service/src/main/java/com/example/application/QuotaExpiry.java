@@ -0,0 +1,19 @@
+package com.example.application;
+
+import java.time.Duration;
+
+/**
+ * Validity of stored quotes: quotas are readable for {@code ttl} after the rate was issued (its
+ * {@link com.example.domain.PriceRate#timestamp()}, not the time it was processed or stored) and deleted by
+ * {@link QuotaSweeper} every {@code sweepInterval} after that. A zero ttl keeps quotas forever.
+ */
+public record QuotaExpiry(Duration ttl, Duration sweepInterval) {
+
+  public long expiresAt(long issuedAtMs) {
+    return ttl.isZero() ? 0L : issuedAtMs + ttl.toMillis();
+  }
+
+  public boolean isEnabled() {
+    return !ttl.isZero();
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.DeleteHandler;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.example.domain.QuotaState;
+
+import java.util.List;
+
+/**
+ * Expiry time per stored {@link QuotaEntity}, so {@link QuotaSweeper} can find expired quotas without
+ * scanning the entities.
+ */
+@Component(id = "quota-expiry-view")
+public class QuotaExpiryView extends View {
+
+  public record QuotaExpiryEntry(String priceRateId, long expiresAt) {}
+
+  public record QuotaExpiryEntries(List<QuotaExpiryEntry> entries) {}
+
+  @Consume.FromKeyValueEntity(QuotaEntity.class)
+  public static class QuotaExpiryUpdater extends TableUpdater<QuotaExpiryEntry> {
+
+    public Effect<QuotaExpiryEntry> onUpdate(QuotaState state) {
+      if (state.expiresAt() <= 0) {
+        return effects().ignore();
+      }
+      var priceRateId = updateContext().eventSubject().orElse(state.priceRate().priceRateId());
+      return effects().updateRow(new QuotaExpiryEntry(priceRateId, state.expiresAt()));
+    }
+
+    @DeleteHandler
+    public Effect<QuotaExpiryEntry> onDelete() {
+      return effects().deleteRow();
+    }
+  }
+
+  @Query("SELECT * AS entries FROM quota_expiry WHERE expiresAt < :now LIMIT 500")
+  public QueryEffect<QuotaExpiryEntries> getExpired(long now) {
+    return queryResult();
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.application;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import akka.stream.BoundedSourceQueue;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limiter for the {@link QuotaEntity} writes of {@link PriceRateQuotaStoreConsumer}: at most
+ * {@code parallelism} writes are in flight per node, further writes wait in a buffer of {@code bufferSize}. Every
+ * write is still its own {@link QuotaEntity#add} call, there is no multi-entity command to group them into.
+ *
+ * <p>{@link #add} returns a stage that completes when the write is stored, so the consumer only acknowledges an
+ * event once its quotas are durable; a failed write (after one retry) fails the stage and the event is redelivered.
+ * When the buffer is full the write is rejected: its stage fails right away, and the redelivery of the event holds
+ * the consumer back until the writes ahead of it are done.
+ */
+public class QuotaStoreWriter {
+
+  private static final Logger logger = LoggerFactory.getLogger(QuotaStoreWriter.class);
+
+  public record Settings(int parallelism, int bufferSize) {}
+
+  public record Stats(long queued, long inFlight, long written, long failed, long rejected, long lastWaitMs, long lastWriteMs) {}
+
+  private record PendingWrite(String priceRateId, QuotaEntity.AddCommand command, long enqueuedAtMs, CompletableFuture<Done> result) {}
+
+  private final ComponentClient componentClient;
+  private final BoundedSourceQueue<PendingWrite> queue;
+
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong inFlight = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong lastWaitMs = new AtomicLong();
+  private final AtomicLong lastWriteMs = new AtomicLong();
+
+  public QuotaStoreWriter(ComponentClient componentClient, Settings settings, Materializer materializer) {
+    this.componentClient = componentClient;
+    this.queue = Source.<PendingWrite>queue(settings.bufferSize())
+        .mapAsyncUnordered(settings.parallelism(), write -> {
+          queued.decrementAndGet();
+          start(write);
+          // the slot is held until the write is done, successful or not
+          return write.result().exceptionally(e -> Done.getInstance());
+        })
+        .to(Sink.ignore())
+        .run(materializer);
+  }
+
+  public CompletionStage<Done> add(String priceRateId, QuotaEntity.AddCommand command) {
+    var write = new PendingWrite(priceRateId, command, System.currentTimeMillis(), new CompletableFuture<>());
+    queued.incrementAndGet();
+    if (queue.offer(write) != QueueOfferResult.enqueued()) {
+      queued.decrementAndGet();
+      rejected.incrementAndGet();
+      write.result().completeExceptionally(
+          new IllegalStateException("Quota write buffer full, rejecting write for priceRateId " + priceRateId));
+    }
+    return write.result();
+  }
+
+  public Stats stats() {
+    return new Stats(queued.get(), inFlight.get(), written.get(), failed.get(), rejected.get(), lastWaitMs.get(), lastWriteMs.get());
+  }
+
+  private void start(PendingWrite write) {
+    var startedAtMs = System.currentTimeMillis();
+    inFlight.incrementAndGet();
+    lastWaitMs.set(startedAtMs - write.enqueuedAtMs());
+    invokeAdd(write)
+        // one retry, then the stage fails and the consumer redelivers the event
+        .exceptionallyCompose(e -> invokeAdd(write))
+        .whenComplete((done, e) -> {
+          inFlight.decrementAndGet();
+          if (e != null) {
+            failed.incrementAndGet();
+            logger.error("Failed storing quotas for priceRateId {}", write.priceRateId(), e);
+            write.result().completeExceptionally(e);
+          } else {
+            written.incrementAndGet();
+            lastWriteMs.set(System.currentTimeMillis() - startedAtMs);
+            write.result().complete(done);
+          }
+        });
+  }
+
+  private CompletableFuture<Done> invokeAdd(PendingWrite write) {
+    return componentClient.forKeyValueEntity(write.priceRateId())
+        .method(QuotaEntity::add)
+        .invokeAsync(write.command())
+        .toCompletableFuture();
+  }
+}
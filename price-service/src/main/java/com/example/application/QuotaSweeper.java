@@ -0,0 +1,62 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deletes expired {@link QuotaEntity} instances found through {@link QuotaExpiryView}. The next sweep is scheduled
+ * before the work starts, so a failing sweep still runs again. Started from Bootstrap; all nodes share the same
+ * named timer.
+ */
+@Component(id = "quota-sweeper")
+public class QuotaSweeper extends TimedAction {
+
+  private static final Logger logger = LoggerFactory.getLogger(QuotaSweeper.class);
+  public static final String TIMER_NAME = "quota-sweeper";
+  private static final int BATCH_SIZE = 500;
+
+  private final ComponentClient componentClient;
+  private final QuotaExpiry quotaExpiry;
+
+  public QuotaSweeper(ComponentClient componentClient, QuotaExpiry quotaExpiry) {
+    this.componentClient = componentClient;
+    this.quotaExpiry = quotaExpiry;
+  }
+
+  public Effect sweep() {
+    scheduleNext(quotaExpiry.sweepInterval());
+
+    var expired = componentClient.forView()
+        .method(QuotaExpiryView::getExpired)
+        .invoke(System.currentTimeMillis())
+        .entries();
+
+    var deletes = expired.stream()
+        .map(e -> componentClient.forKeyValueEntity(e.priceRateId())
+            .method(QuotaEntity::delete)
+            .invokeAsync()
+            .toCompletableFuture())
+        .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(deletes).join();
+    if (!expired.isEmpty()) {
+      logger.info("Deleted {} expired quota entities", expired.size());
+    }
+
+    // a full batch means there is a backlog, continue right away
+    if (expired.size() >= BATCH_SIZE) {
+      scheduleNext(Duration.ofMillis(100));
+    }
+    return effects().done();
+  }
+
+  private void scheduleNext(Duration delay) {
+    timers().createSingleTimer(TIMER_NAME, delay,
+        componentClient.forTimedAction().method(QuotaSweeper::sweep).deferred());
+  }
+}
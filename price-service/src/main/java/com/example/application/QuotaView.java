@@ -7,12 +7,47 @@ import akka.javasdk.view.TableUpdater;
 import akka.javasdk.view.View;
 import com.example.domain.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Component(id = "quota-view")
 public class QuotaView extends View {
 
-  public record QuotaEntry(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {}
+  /**
+   * Latest quotas for a currency pair. Compact events leave {@code quotas} empty; the quotas are then
+   * derived from {@code subscribers}, the snapshot referenced by the rate. {@code forwards} are the forward
+   * tenors priced off the same spot rate. {@code updatedAt} is the feed timestamp of the newest rate the row has
+   * held (epoch millis): derived from the events only, so every replay of the view computes the same value, and
+   * never moving back for a row even if a rate arrives with an older timestamp.
+   */
+  public record QuotaEntry(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas, List<SubscriberCredit> subscribers, List<ForwardPriceRate> forwards, long updatedAt) {
+
+    /**
+     * Spot and forward quotas of this row.
+     */
+    public List<Quota> toQuotas() {
+      var result = new ArrayList<Quota>();
+      var spotQuotas = materializedQuotas();
+      spotQuotas.forEach(pq -> result.add(Quota.of(ccyPair, priceRate, pq)));
+      if (priceRate != null && forwards != null) {
+        forwards.forEach(f -> f.quotasFor(spotQuotas).forEach(pq -> result.add(Quota.of(ccyPair, f.priceRate(), pq))));
+      }
+      return result;
+    }
+
+    public List<PriceRateClientQuota> materializedQuotas() {
+      if (priceRate == null) {
+        return List.of();
+      }
+      if (quotas != null && !quotas.isEmpty()) {
+        return quotas;
+      }
+      if (subscribers == null) {
+        return List.of();
+      }
+      return subscribers.stream().map(s -> s.toQuota(priceRate.priceRateId())).toList();
+    }
+  }
 
   @Consume.FromEventSourcedEntity(PriceEntity.class)
   public static class QuotaUpdater extends TableUpdater<QuotaEntry> {
@@ -20,13 +55,40 @@ public class QuotaView extends View {
     public Effect<QuotaEntry> onEvent(PriceEvent event) {
       return switch (event) {
         case PriceEvent.PriceRateAdded e ->
-                effects().updateRow(new QuotaEntry(e.ccyPair(), e.priceRate(), e.quotas()));
+                effects().updateRow(new QuotaEntry(e.ccyPair(), e.priceRate(), e.quotas(), List.of(), e.forwards(), updatedAt(e.priceRate())));
+        // no price rate on a snapshot-only update, so the streamed row does not repeat the previous quotas
+        case PriceEvent.SubscriberSnapshotUpdated e ->
+                effects().updateRow(new QuotaEntry(e.ccyPair(), null, List.of(), e.subscribers(), List.of(), lastUpdatedAt()));
+        case PriceEvent.CompactPriceRateAdded e ->
+                effects().updateRow(new QuotaEntry(e.ccyPair(), e.priceRate(), List.of(), currentSubscribers(), List.of(), updatedAt(e.priceRate())));
         default -> effects().ignore();
       };
     }
+
+    private long updatedAt(PriceRate priceRate) {
+      return Math.max(lastUpdatedAt(), priceRate.timestamp());
+    }
+
+    private long lastUpdatedAt() {
+      return rowState() == null ? 0L : rowState().updatedAt();
+    }
+
+    private List<SubscriberCredit> currentSubscribers() {
+      return rowState() == null || rowState().subscribers() == null ? List.of() : rowState().subscribers();
+    }
   }
   @Query(value = "SELECT * FROM quotas", streamUpdates = true)
   public View.QueryStreamEffect<QuotaEntry> streamAll() {
     return queryStreamResult();
   }
-}
\ No newline at end of file
+
+  /**
+   * Like {@link #streamAll()}, but only rows with {@code updatedAt} at or after {@code since} (epoch millis, feed
+   * clock), so a (re)started stream does not replay the whole table. Rows at exactly {@code since} come again;
+   * readers drop rates they already have.
+   */
+  @Query(value = "SELECT * FROM quotas WHERE updatedAt >= :since", streamUpdates = true)
+  public View.QueryStreamEffect<QuotaEntry> streamSince(long since) {
+    return queryStreamResult();
+  }
+}
@@ -0,0 +1,121 @@
+package com.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import akka.stream.Materializer;
+import akka.stream.RestartSettings;
+import akka.stream.javadsl.RestartSource;
+import akka.stream.javadsl.Sink;
+import com.example.domain.CreditStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local replica of (ccyPair -> subscribers with their current credit status).
+ *
+ * <p>Fed by the update streams of {@link PriceSubscriptionsView} and {@link ClientView}, so that
+ * rate processing can read the subscriber list for a pair without querying a view per tick.
+ */
+public class SubscriberCreditCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(SubscriberCreditCache.class);
+
+  private final ComponentClient componentClient;
+  private final Materializer materializer;
+
+  private final ConcurrentHashMap<String, Set<String>> subscribersByCcyPair = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CreditStatus> creditByClient = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, List<ClientView.ClientEntry>> snapshots = new ConcurrentHashMap<>();
+  // bumped on every replica change (after the change, before the snapshot removal), so a snapshot built
+  // concurrently with an update is not kept
+  private final AtomicLong version = new AtomicLong();
+
+  public SubscriberCreditCache(ComponentClient componentClient, Materializer materializer) {
+    this.componentClient = componentClient;
+    this.materializer = materializer;
+    runSubscriptionsStream();
+    runCreditStream();
+  }
+
+  /**
+   * Subscribers of the given pair with their credit status, or empty if the replica is not yet
+   * complete for that pair (pair not seen yet, or a subscriber whose credit status is not known yet).
+   */
+  public Optional<List<ClientView.ClientEntry>> subscribers(String ccyPair) {
+    var snapshot = snapshots.get(ccyPair);
+    if (snapshot != null) {
+      return Optional.of(snapshot);
+    }
+    var versionAtStart = version.get();
+    var clientIds = subscribersByCcyPair.get(ccyPair);
+    if (clientIds == null) {
+      return Optional.empty();
+    }
+    var entries = new ArrayList<ClientView.ClientEntry>(clientIds.size());
+    for (var clientId : clientIds) {
+      var creditStatus = creditByClient.get(clientId);
+      if (creditStatus == null) {
+        return Optional.empty();
+      }
+      entries.add(new ClientView.ClientEntry(clientId, creditStatus));
+    }
+    var built = List.copyOf(entries);
+    snapshots.put(ccyPair, built);
+    // an update that raced the build bumped the version before removing the snapshot, which may have run
+    // before this put: re-check afterwards and take the possibly stale snapshot out again
+    if (version.get() != versionAtStart) {
+      snapshots.remove(ccyPair, built);
+    }
+    return Optional.of(built);
+  }
+
+  private void runSubscriptionsStream() {
+    RestartSource.withBackoff(
+            RestartSettings.create(Duration.ofMillis(1000), Duration.ofMillis(100), 2.4),
+            () -> {
+              logger.warn("Restart subscriptions stream");
+              return componentClient.forView()
+                  .stream(PriceSubscriptionsView::streamAll)
+                  .source();
+            })
+        .runWith(Sink.foreach(entry -> {
+          subscribersByCcyPair.put(entry.ccyPair(), Set.copyOf(entry.clientIds()));
+          version.incrementAndGet();
+          snapshots.remove(entry.ccyPair());
+        }), materializer);
+  }
+
+  private void runCreditStream() {
+    RestartSource.withBackoff(
+            RestartSettings.create(Duration.ofMillis(1000), Duration.ofMillis(100), 2.4),
+            () -> {
+              logger.warn("Restart credit stream");
+              return componentClient.forView()
+                  .stream(ClientView::streamAll)
+                  .source();
+            })
+        .runWith(Sink.foreach(entry -> {
+          var previous = creditByClient.put(entry.clientId(), entry.creditStatus());
+          if (previous != entry.creditStatus()) {
+            version.incrementAndGet();
+            invalidatePairsOf(entry.clientId());
+          }
+        }), materializer);
+  }
+
+  // only the snapshots listing this client are stale; pairs are few, so scanning them is cheaper than a reverse index
+  private void invalidatePairsOf(String clientId) {
+    subscribersByCcyPair.forEach((ccyPair, clientIds) -> {
+      if (clientIds.contains(clientId)) {
+        snapshots.remove(ccyPair);
+      }
+    });
+  }
+}
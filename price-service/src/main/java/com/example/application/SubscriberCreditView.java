@@ -0,0 +1,53 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.example.domain.ClientWorkflowState;
+import com.example.domain.CreditStatus;
+
+import java.util.List;
+
+/**
+ * Subscriptions and credit status of each client in one row, so the subscribers of a pair together with their
+ * credit are a single query by ccyPair instead of a subscriber list lookup plus {@code ClientView.getByClientIds}.
+ *
+ * <p>Rows list {@link ClientWorkflowState#activeSubscriptions()}: pairs still being subscribed or queued are left
+ * out, and a subscribe that fails is rolled back by the workflow's failover step, so its pairs never show up.
+ */
+@Component(id = "subscriber-credit-view")
+public class SubscriberCreditView extends View {
+
+  public record SubscriberEntry(String clientId, CreditStatus creditStatus, List<String> ccyPairs) {
+
+    public ClientView.ClientEntry toClientEntry() {
+      return new ClientView.ClientEntry(clientId, creditStatus);
+    }
+  }
+
+  public record SubscriberEntries(List<SubscriberEntry> entries) {}
+
+  /** {@code nextPageToken} is empty on the last page. */
+  public record SubscriberPage(List<SubscriberEntry> entries, String nextPageToken) {}
+
+  @Consume.FromWorkflow(ClientWorkflow.class)
+  public static class SubscriberCreditUpdater extends TableUpdater<SubscriberEntry> {
+
+    public Effect<SubscriberEntry> onUpdate(ClientWorkflowState state) {
+      return effects().updateRow(
+          new SubscriberEntry(state.clientId(), state.creditStatus(), List.copyOf(state.activeSubscriptions())));
+    }
+  }
+
+  @Query("SELECT * AS entries FROM subscriber_credit WHERE :ccyPair = ANY(ccyPairs)")
+  public QueryEffect<SubscriberEntries> getByCcyPair(String ccyPair) {
+    return queryResult();
+  }
+
+  @Query("SELECT * AS entries, next_page_token() AS nextPageToken FROM subscriber_credit OFFSET page_token_offset(:pageToken) LIMIT 500")
+  public QueryEffect<SubscriberPage> getPage(String pageToken) {
+    return queryResult();
+  }
+}
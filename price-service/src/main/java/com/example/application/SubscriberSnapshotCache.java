@@ -0,0 +1,47 @@
+package com.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import com.example.domain.SubscriberCredit;
+import com.example.domain.SubscriberSnapshot;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest subscriber snapshot per ccyPair, so consumers of compact price rates can materialize the quotas without
+ * a {@link SubscriberSnapshotEntity} call per rate. Snapshots never change once written, so an entry is valid for
+ * as long as rates reference it; an older or unseen snapshotId is read from the entity.
+ */
+public class SubscriberSnapshotCache {
+
+  private record Entry(String snapshotId, List<SubscriberCredit> subscribers) {}
+
+  private final ComponentClient componentClient;
+  private final ConcurrentHashMap<String, Entry> latestByCcyPair = new ConcurrentHashMap<>();
+
+  public SubscriberSnapshotCache(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public void put(String ccyPair, String snapshotId, List<SubscriberCredit> subscribers) {
+    latestByCcyPair.put(ccyPair, new Entry(snapshotId, List.copyOf(subscribers)));
+  }
+
+  public List<SubscriberCredit> subscribers(String ccyPair, String snapshotId) {
+    var entry = latestByCcyPair.get(ccyPair);
+    if (entry != null && entry.snapshotId().equals(snapshotId)) {
+      return entry.subscribers();
+    }
+    var subscribers = componentClient.forKeyValueEntity(snapshotId)
+        .method(SubscriberSnapshotEntity::getSubscribers)
+        .invoke();
+    // only move forward: a late read of an old snapshot must not replace the current one
+    latestByCcyPair.compute(ccyPair, (key, current) ->
+        current == null || version(current.snapshotId()) < version(snapshotId) ? new Entry(snapshotId, subscribers) : current);
+    return subscribers;
+  }
+
+  private static long version(String snapshotId) {
+    return SubscriberSnapshot.version(snapshotId);
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.application;
+
+import akka.Done;
+import akka.javasdk.annotations.Component;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import com.example.domain.SubscriberCredit;
+import com.example.domain.SubscriberSnapshot;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Subscriber snapshots referenced by compact price rate events, keyed by snapshotId. Snapshots are immutable
+ * once written, so repeated deliveries of the same snapshot are ignored.
+ */
+@Component(id = "subscriber-snapshot-entity")
+public class SubscriberSnapshotEntity extends KeyValueEntity<SubscriberSnapshot> {
+
+  public record SetCommand(long version, List<SubscriberCredit> subscribers) {}
+
+  public Effect<Done> set(SetCommand command) {
+    if (currentState() != null) {
+      return effects().reply(Done.getInstance());
+    }
+    var snapshotId = commandContext().entityId();
+    return effects()
+        .updateState(SubscriberSnapshot.of(snapshotId, command.version(), command.subscribers()))
+        .thenReply(Done.getInstance());
+  }
+
+  /**
+   * The credit status and markup a client was quoted with, empty if the client is not in the snapshot.
+   */
+  public ReadOnlyEffect<Optional<SubscriberCredit>> getSubscriber(String clientId) {
+    if (currentState() == null) {
+      return effects().reply(Optional.empty());
+    }
+    return effects().reply(currentState().subscriber(clientId));
+  }
+
+  public ReadOnlyEffect<List<SubscriberCredit>> getSubscribers() {
+    if (currentState() == null) {
+      return effects().error("Subscriber snapshot " + commandContext().entityId() + " not found");
+    }
+    return effects().reply(currentState().subscribers());
+  }
+}
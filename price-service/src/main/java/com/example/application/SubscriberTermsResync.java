@@ -0,0 +1,55 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Re-applies the markups of this node's {@link ClientSpreadEngine} to the subscriber terms held by every
+ * {@link PriceEntity}, so a changed spread configuration reaches the entities without waiting for each client's next
+ * workflow update. Walks {@link SubscriberCreditView} one page per run; unchanged markups are ignored by the entity.
+ * Started from Bootstrap; all nodes share the same named timer, the node started last does the final pass.
+ */
+@Component(id = "subscriber-terms-resync")
+public class SubscriberTermsResync extends TimedAction {
+
+  private static final Logger logger = LoggerFactory.getLogger(SubscriberTermsResync.class);
+  public static final String TIMER_NAME = "subscriber-terms-resync";
+
+  private final ComponentClient componentClient;
+  private final ClientSpreadEngine clientSpreadEngine;
+
+  public SubscriberTermsResync(ComponentClient componentClient, ClientSpreadEngine clientSpreadEngine) {
+    this.componentClient = componentClient;
+    this.clientSpreadEngine = clientSpreadEngine;
+  }
+
+  public Effect resync(String pageToken) {
+    var page = componentClient.forView()
+        .method(SubscriberCreditView::getPage)
+        .invoke(pageToken);
+
+    var updates = page.entries().stream()
+        .flatMap(entry -> entry.ccyPairs().stream()
+            .map(ccyPair -> componentClient.forEventSourcedEntity(ccyPair)
+                .method(PriceEntity::updateSubscriberMarkup)
+                .invokeAsync(new PriceEntity.SubscriberMarkupUpdate(entry.clientId(), clientSpreadEngine.markup(ccyPair, entry.clientId())))
+                .toCompletableFuture()))
+        .toArray(CompletableFuture[]::new);
+    // a failure fails the timer call, which is retried with the same page
+    CompletableFuture.allOf(updates).join();
+
+    if (page.nextPageToken().isEmpty()) {
+      logger.info("Subscriber markups re-synced");
+    } else {
+      timers().createSingleTimer(TIMER_NAME, Duration.ZERO,
+          componentClient.forTimedAction().method(SubscriberTermsResync::resync).deferred(page.nextPageToken()));
+    }
+    return effects().done();
+  }
+}
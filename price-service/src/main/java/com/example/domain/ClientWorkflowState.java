@@ -1,7 +1,10 @@
 package com.example.domain;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -11,12 +14,29 @@ public record ClientWorkflowState(
     CreditStatus creditStatus,
 //    Optional<Quota> latestQuota,
     Status status,
-    Optional<String> pendingPair) {
+    Optional<String> pendingPair,
+    Set<String> pendingPairs,
+    List<PendingOperation> queued) {
+
+  /** Subscribe/unsubscribe operations accepted while busy, beyond this the command is rejected. */
+  public static final int MAX_QUEUED = 32;
+
+  // pendingPairs and queued are absent in states stored before batch subscriptions / queueing
+  public ClientWorkflowState {
+    pendingPairs = pendingPairs == null ? Set.of() : pendingPairs;
+    queued = queued == null ? List.of() : queued;
+  }
+
+  public ClientWorkflowState(String clientId, Set<String> subscriptions, CreditStatus creditStatus, Status status, Optional<String> pendingPair) {
+    this(clientId, subscriptions, creditStatus, status, pendingPair, Set.of(), List.of());
+  }
 
   public enum Status {
     IDLE, SUBSCRIBING, UNSUBSCRIBING
   }
 
+  public record PendingOperation(Status status, List<String> ccyPairs) {}
+
   public static ClientWorkflowState initial(String clientId) {
     return new ClientWorkflowState(clientId, Set.of(), CreditStatus.UNKNOWN,  Status.IDLE, Optional.empty());
   }
@@ -26,35 +46,112 @@ public record ClientWorkflowState(
   }
 
   public boolean isSubscribingPair(String ccyPair) {
-    return status == Status.SUBSCRIBING && pendingPair.map(ccyPair::equals).orElse(false);
+    return status == Status.SUBSCRIBING && isPendingPair(ccyPair);
   }
 
   public boolean isUnsubscribingPair(String ccyPair) {
-    return status == Status.UNSUBSCRIBING && pendingPair.map(ccyPair::equals).orElse(false);
+    return status == Status.UNSUBSCRIBING && isPendingPair(ccyPair);
+  }
+
+  private boolean isPendingPair(String ccyPair) {
+    return pendingPair.map(ccyPair::equals).orElse(false) || pendingPairs.contains(ccyPair);
   }
 
   public ClientWorkflowState withPending(Status newStatus, String ccyPair) {
-    return new ClientWorkflowState(clientId, subscriptions, creditStatus,  newStatus, Optional.of(ccyPair));
+    return new ClientWorkflowState(clientId, subscriptions, creditStatus,  newStatus, Optional.of(ccyPair), Set.of(), queued);
+  }
+
+  /**
+   * Pending batch; {@code pendingPair} holds the first pair of the batch so single-pair readers still see one.
+   */
+  public ClientWorkflowState withPending(Status newStatus, Collection<String> ccyPairs) {
+    return new ClientWorkflowState(clientId, subscriptions, creditStatus, newStatus, ccyPairs.stream().findFirst(), Set.copyOf(ccyPairs), queued);
+  }
+
+  /**
+   * Undoes the subscription change of a pending operation that failed: a failed subscribe takes its pairs out of
+   * {@code subscriptions}, a failed unsubscribe puts them back. Pairs a queued operation changes again are left to
+   * that operation.
+   */
+  public ClientWorkflowState withPendingRolledBack() {
+    if (!isBusy()) {
+      return this;
+    }
+    var pairs = new HashSet<>(pendingPairs);
+    pendingPair.ifPresent(pairs::add);
+    queued.forEach(operation -> operation.ccyPairs().forEach(pairs::remove));
+    var updated = new HashSet<>(subscriptions);
+    if (status == Status.SUBSCRIBING) {
+      updated.removeAll(pairs);
+    } else {
+      updated.addAll(pairs);
+    }
+    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus, status, pendingPair, pendingPairs, queued);
   }
 
   public ClientWorkflowState withIdle() {
     return new ClientWorkflowState(clientId, subscriptions, creditStatus, Status.IDLE, Optional.empty());
   }
 
+  public boolean isQueueFull() {
+    return queued.size() >= MAX_QUEUED;
+  }
+
+  /**
+   * Appends an operation to run once the in-flight one completes. Consecutive operations of the same
+   * kind are merged into one batch, so a subscribe storm drains in a few workflow runs.
+   */
+  public ClientWorkflowState withQueued(Status operation, Collection<String> ccyPairs) {
+    var updated = new ArrayList<>(queued);
+    var last = updated.isEmpty() ? null : updated.getLast();
+    if (last != null && last.status() == operation) {
+      var merged = new ArrayList<>(last.ccyPairs());
+      ccyPairs.stream().filter(ccyPair -> !merged.contains(ccyPair)).forEach(merged::add);
+      updated.set(updated.size() - 1, new PendingOperation(operation, List.copyOf(merged)));
+    } else {
+      updated.add(new PendingOperation(operation, List.copyOf(ccyPairs)));
+    }
+    return new ClientWorkflowState(clientId, subscriptions, creditStatus, status, pendingPair, pendingPairs, List.copyOf(updated));
+  }
+
+  /**
+   * Completes the in-flight operation and makes the next queued one pending, or goes idle when the queue is empty.
+   */
+  public ClientWorkflowState withNextQueued() {
+    if (queued.isEmpty()) {
+      return withIdle();
+    }
+    var next = queued.getFirst();
+    return new ClientWorkflowState(clientId, subscriptions, creditStatus, next.status(), next.ccyPairs().stream().findFirst(),
+        Set.copyOf(next.ccyPairs()), List.copyOf(queued.subList(1, queued.size())));
+  }
+
   public ClientWorkflowState withSubscription(String ccyPair) {
     var updated = new HashSet<>(subscriptions);
     updated.add(ccyPair);
-    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus, status, pendingPair);
+    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus, status, pendingPair, pendingPairs, queued);
+  }
+
+  public ClientWorkflowState withSubscriptions(Collection<String> ccyPairs) {
+    var updated = new HashSet<>(subscriptions);
+    updated.addAll(ccyPairs);
+    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus, status, pendingPair, pendingPairs, queued);
   }
 
   public ClientWorkflowState withoutSubscription(String ccyPair) {
     var updated = new HashSet<>(subscriptions);
     updated.remove(ccyPair);
-    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus,  status, pendingPair);
+    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus,  status, pendingPair, pendingPairs, queued);
+  }
+
+  public ClientWorkflowState withoutSubscriptions(Collection<String> ccyPairs) {
+    var updated = new HashSet<>(subscriptions);
+    updated.removeAll(ccyPairs);
+    return new ClientWorkflowState(clientId, Set.copyOf(updated), creditStatus, status, pendingPair, pendingPairs, queued);
   }
 
   public ClientWorkflowState withCreditStatus(CreditStatus newCreditStatus) {
-    return new ClientWorkflowState(clientId, subscriptions, newCreditStatus,  status, pendingPair);
+    return new ClientWorkflowState(clientId, subscriptions, newCreditStatus,  status, pendingPair, pendingPairs, queued);
   }
 
 //  public ClientWorkflowState withQuota(Quota quota) {
@@ -65,6 +162,22 @@ public record ClientWorkflowState(
     return subscriptions.contains(ccyPair);
   }
 
+  /**
+   * Subscriptions whose price entity subscription has completed: {@code subscriptions} already includes pairs
+   * that are still being subscribed or queued for subscribing.
+   */
+  public Set<String> activeSubscriptions() {
+    var active = new HashSet<>(subscriptions);
+    if (status == Status.SUBSCRIBING) {
+      pendingPair.ifPresent(active::remove);
+      active.removeAll(pendingPairs);
+    }
+    queued.stream()
+        .filter(operation -> operation.status() == Status.SUBSCRIBING)
+        .forEach(operation -> operation.ccyPairs().forEach(active::remove));
+    return active;
+  }
+
 //  public boolean isDuplicateRate(String ccyPair, double bid, double ask) {
 //    return latestQuota
 //        .map(q -> q.ccyPair().equals(ccyPair) && q.bid() == bid && q.ask() == ask)
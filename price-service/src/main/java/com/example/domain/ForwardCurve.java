@@ -0,0 +1,58 @@
+package com.example.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forward points of one currency pair for a fixed set of tenors. Points are given in pips and converted
+ * to price offsets once, so pricing all tenors off a spot tick is a single loop over primitive arrays.
+ */
+public final class ForwardCurve {
+
+  private final String[] tenors;
+  private final double[] bidOffsets;
+  private final double[] askOffsets;
+
+  public ForwardCurve(String ccyPair, List<String> tenors, double[] bidPoints, double[] askPoints) {
+    if (tenors.size() != bidPoints.length || tenors.size() != askPoints.length) {
+      throw new IllegalArgumentException("Forward points for " + ccyPair + " must have one bid and ask per tenor " + tenors);
+    }
+    var pipSize = Pips.size(ccyPair);
+    this.tenors = tenors.toArray(String[]::new);
+    this.bidOffsets = new double[bidPoints.length];
+    this.askOffsets = new double[askPoints.length];
+    for (int i = 0; i < this.tenors.length; i++) {
+      bidOffsets[i] = bidPoints[i] * pipSize;
+      askOffsets[i] = askPoints[i] * pipSize;
+    }
+  }
+
+  public int size() {
+    return tenors.length;
+  }
+
+  public String tenor(int index) {
+    return tenors[index];
+  }
+
+  /**
+   * Writes the outright bid/ask of every tenor into the given arrays (at least {@link #size()} long).
+   */
+  public void price(double spotBid, double spotAsk, double[] bidOut, double[] askOut) {
+    for (int i = 0; i < tenors.length; i++) {
+      bidOut[i] = spotBid + bidOffsets[i];
+      askOut[i] = spotAsk + askOffsets[i];
+    }
+  }
+
+  public List<TenorRate> price(double spotBid, double spotAsk) {
+    var bids = new double[tenors.length];
+    var asks = new double[tenors.length];
+    price(spotBid, spotAsk, bids, asks);
+    var rates = new ArrayList<TenorRate>(tenors.length);
+    for (int i = 0; i < tenors.length; i++) {
+      rates.add(new TenorRate(tenors[i], bids[i], asks[i]));
+    }
+    return rates;
+  }
+}
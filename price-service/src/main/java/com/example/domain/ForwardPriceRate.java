@@ -0,0 +1,36 @@
+package com.example.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rate of one forward tenor, derived from the spot rate it is published with. Its quotas are not persisted:
+ * {@link #quotasFor} derives them from the spot quotas with deterministic quotaIds, the way compact events do.
+ * {@code quotas} is only set in events written before that and is empty otherwise.
+ */
+public record ForwardPriceRate(PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+
+  public ForwardPriceRate(PriceRate priceRate) {
+    this(priceRate, List.of());
+  }
+
+  /**
+   * Deterministic priceRateId of a forward tenor priced off a spot rate.
+   */
+  public static String priceRateId(String spotPriceRateId, String tenor) {
+    return UUID.nameUUIDFromBytes((spotPriceRateId + ":" + tenor).getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  /**
+   * Quotas of this tenor for the subscribers quoted on the spot rate, with the same credit and markup.
+   */
+  public List<PriceRateClientQuota> quotasFor(List<PriceRateClientQuota> spotQuotas) {
+    if (quotas != null && !quotas.isEmpty()) {
+      return quotas;
+    }
+    return spotQuotas.stream()
+        .map(q -> new PriceRateClientQuota(PriceRateClientQuota.quotaId(priceRate.priceRateId(), q.clientId()), q.clientId(), q.creditStatus(), q.markup()))
+        .toList();
+  }
+}
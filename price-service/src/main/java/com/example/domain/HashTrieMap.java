@@ -0,0 +1,334 @@
+package com.example.domain;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash map (hash array mapped trie). {@link #plus} and {@link #minus} return a new map that shares all
+ * untouched nodes with this one, so an update copies at most one node per trie level (O(log32 n)) and every
+ * earlier version stays valid. Iteration order follows the key hashes. The {@link Map} mutators are not supported.
+ */
+public final class HashTrieMap<K, V> extends AbstractMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  // 7 bitmap levels cover the 32 hash bits, keys with equal hashes end up in a collision node below them
+  private static final int MAX_DEPTH = 8;
+
+  private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(new BitmapNode(0, new Object[0]), 0);
+
+  private record Leaf<K, V>(int hash, K key, V value) implements Map.Entry<K, V> {
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Map.Entry<?, ?> e && Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(key) ^ Objects.hashCode(value);
+    }
+  }
+
+  // slots hold a Leaf or a child node for each bit set in bitmap, in bit order
+  private record BitmapNode(int bitmap, Object[] slots) {}
+
+  private record CollisionNode(int hash, Object[] leaves) {}
+
+  private final BitmapNode root;
+  private final int size;
+
+  private HashTrieMap(BitmapNode root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> HashTrieMap<K, V> empty() {
+    return (HashTrieMap<K, V>) EMPTY;
+  }
+
+  public static <K, V> HashTrieMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof HashTrieMap<?, ?>) {
+      @SuppressWarnings("unchecked")
+      var trie = (HashTrieMap<K, V>) map;
+      return trie;
+    }
+    HashTrieMap<K, V> result = empty();
+    for (var entry : map.entrySet()) {
+      result = result.plus(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  public HashTrieMap<K, V> plus(K key, V value) {
+    var added = new boolean[1];
+    var newRoot = (BitmapNode) put(root, 0, new Leaf<>(hash(key), key, value), added);
+    return newRoot == root ? this : new HashTrieMap<>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  public HashTrieMap<K, V> minus(Object key) {
+    var newRoot = remove(root, 0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? empty() : new HashTrieMap<>((BitmapNode) newRoot, size - 1);
+  }
+
+  @Override
+  public V get(Object key) {
+    var leaf = find(key);
+    return leaf == null ? null : leaf.value();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new LeafIterator<>(root);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private static int hash(Object key) {
+    var h = Objects.hashCode(key);
+    // spread the high bits into the first levels, like HashMap does
+    return h ^ (h >>> 16);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Leaf<K, V> find(Object key) {
+    var hash = hash(key);
+    Object node = root;
+    var shift = 0;
+    while (true) {
+      if (node instanceof BitmapNode bitmapNode) {
+        var bit = 1 << ((hash >>> shift) & MASK);
+        if ((bitmapNode.bitmap() & bit) == 0) {
+          return null;
+        }
+        node = bitmapNode.slots()[index(bitmapNode.bitmap(), bit)];
+        shift += BITS;
+      } else if (node instanceof Leaf<?, ?> leaf) {
+        return leaf.hash() == hash && Objects.equals(leaf.key(), key) ? (Leaf<K, V>) leaf : null;
+      } else {
+        var collision = (CollisionNode) node;
+        if (collision.hash() != hash) {
+          return null;
+        }
+        for (var slot : collision.leaves()) {
+          var leaf = (Leaf<K, V>) slot;
+          if (Objects.equals(leaf.key(), key)) {
+            return leaf;
+          }
+        }
+        return null;
+      }
+    }
+  }
+
+  private static Object put(Object node, int shift, Leaf<?, ?> leaf, boolean[] added) {
+    if (node instanceof CollisionNode collision) {
+      var leaves = collision.leaves();
+      for (int i = 0; i < leaves.length; i++) {
+        var existing = (Leaf<?, ?>) leaves[i];
+        if (Objects.equals(existing.key(), leaf.key())) {
+          return Objects.equals(existing.value(), leaf.value()) ? node : new CollisionNode(collision.hash(), replaced(leaves, i, leaf));
+        }
+      }
+      added[0] = true;
+      return new CollisionNode(collision.hash(), inserted(leaves, leaves.length, leaf));
+    }
+    var bitmapNode = (BitmapNode) node;
+    var bit = 1 << ((leaf.hash() >>> shift) & MASK);
+    var index = index(bitmapNode.bitmap(), bit);
+    if ((bitmapNode.bitmap() & bit) == 0) {
+      added[0] = true;
+      return new BitmapNode(bitmapNode.bitmap() | bit, inserted(bitmapNode.slots(), index, leaf));
+    }
+    var slot = bitmapNode.slots()[index];
+    Object newSlot;
+    if (slot instanceof Leaf<?, ?> existing) {
+      if (existing.hash() == leaf.hash() && Objects.equals(existing.key(), leaf.key())) {
+        if (Objects.equals(existing.value(), leaf.value())) {
+          return node;
+        }
+        newSlot = leaf;
+      } else {
+        added[0] = true;
+        newSlot = merge(existing, leaf, shift + BITS);
+      }
+    } else {
+      newSlot = put(slot, shift + BITS, leaf, added);
+      if (newSlot == slot) {
+        return node;
+      }
+    }
+    return new BitmapNode(bitmapNode.bitmap(), replaced(bitmapNode.slots(), index, newSlot));
+  }
+
+  private static Object merge(Leaf<?, ?> a, Leaf<?, ?> b, int shift) {
+    if (a.hash() == b.hash()) {
+      return new CollisionNode(a.hash(), new Object[]{a, b});
+    }
+    var indexA = (a.hash() >>> shift) & MASK;
+    var indexB = (b.hash() >>> shift) & MASK;
+    if (indexA == indexB) {
+      return new BitmapNode(1 << indexA, new Object[]{merge(a, b, shift + BITS)});
+    }
+    return new BitmapNode((1 << indexA) | (1 << indexB), indexA < indexB ? new Object[]{a, b} : new Object[]{b, a});
+  }
+
+  // returns the node unchanged if the key is absent, null if the node became empty, or a Leaf to be inlined by the parent
+  private static Object remove(Object node, int shift, int hash, Object key) {
+    if (node instanceof CollisionNode collision) {
+      var leaves = collision.leaves();
+      for (int i = 0; i < leaves.length; i++) {
+        if (Objects.equals(((Leaf<?, ?>) leaves[i]).key(), key)) {
+          return leaves.length == 2 ? leaves[1 - i] : new CollisionNode(hash, removed(leaves, i));
+        }
+      }
+      return node;
+    }
+    var bitmapNode = (BitmapNode) node;
+    var bit = 1 << ((hash >>> shift) & MASK);
+    if ((bitmapNode.bitmap() & bit) == 0) {
+      return node;
+    }
+    var index = index(bitmapNode.bitmap(), bit);
+    var slot = bitmapNode.slots()[index];
+    Object newSlot;
+    if (slot instanceof Leaf<?, ?> leaf) {
+      if (leaf.hash() != hash || !Objects.equals(leaf.key(), key)) {
+        return node;
+      }
+      newSlot = null;
+    } else {
+      newSlot = remove(slot, shift + BITS, hash, key);
+      if (newSlot == slot) {
+        return node;
+      }
+    }
+    if (newSlot != null) {
+      return new BitmapNode(bitmapNode.bitmap(), replaced(bitmapNode.slots(), index, newSlot));
+    }
+    var bitmap = bitmapNode.bitmap() & ~bit;
+    if (bitmap == 0) {
+      return null;
+    }
+    var slots = removed(bitmapNode.slots(), index);
+    // a lone leaf moves up into the parent; the root stays a bitmap node
+    if (shift > 0 && slots.length == 1 && slots[0] instanceof Leaf<?, ?>) {
+      return slots[0];
+    }
+    return new BitmapNode(bitmap, slots);
+  }
+
+  private static int index(int bitmap, int bit) {
+    return Integer.bitCount(bitmap & (bit - 1));
+  }
+
+  private static Object[] inserted(Object[] slots, int index, Object slot) {
+    var result = new Object[slots.length + 1];
+    System.arraycopy(slots, 0, result, 0, index);
+    result[index] = slot;
+    System.arraycopy(slots, index, result, index + 1, slots.length - index);
+    return result;
+  }
+
+  private static Object[] replaced(Object[] slots, int index, Object slot) {
+    var result = slots.clone();
+    result[index] = slot;
+    return result;
+  }
+
+  private static Object[] removed(Object[] slots, int index) {
+    var result = new Object[slots.length - 1];
+    System.arraycopy(slots, 0, result, 0, index);
+    System.arraycopy(slots, index + 1, result, index, slots.length - index - 1);
+    return result;
+  }
+
+  private static final class LeafIterator<K, V> implements Iterator<Entry<K, V>> {
+
+    private final Object[][] stack = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth;
+    private Leaf<K, V> next;
+
+    private LeafIterator(BitmapNode root) {
+      stack[0] = root.slots();
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      var result = next;
+      advance();
+      return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void advance() {
+      next = null;
+      while (depth >= 0) {
+        var slots = stack[depth];
+        if (positions[depth] == slots.length) {
+          depth--;
+          continue;
+        }
+        var slot = slots[positions[depth]++];
+        if (slot instanceof Leaf<?, ?> leaf) {
+          next = (Leaf<K, V>) leaf;
+          return;
+        }
+        depth++;
+        stack[depth] = slot instanceof BitmapNode bitmapNode ? bitmapNode.slots() : ((CollisionNode) slot).leaves();
+        positions[depth] = 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.domain;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Immutable hash set on top of {@link HashTrieMap}: {@link #plus} and {@link #minus} return a new set sharing all
+ * untouched nodes with this one. The {@link java.util.Set} mutators are not supported.
+ */
+public final class HashTrieSet<E> extends AbstractSet<E> {
+
+  private static final HashTrieSet<?> EMPTY = new HashTrieSet<>(HashTrieMap.empty());
+
+  private final HashTrieMap<E, Boolean> map;
+
+  private HashTrieSet(HashTrieMap<E, Boolean> map) {
+    this.map = map;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> HashTrieSet<E> empty() {
+    return (HashTrieSet<E>) EMPTY;
+  }
+
+  public static <E> HashTrieSet<E> copyOf(Collection<? extends E> elements) {
+    if (elements instanceof HashTrieSet<?>) {
+      @SuppressWarnings("unchecked")
+      var set = (HashTrieSet<E>) elements;
+      return set;
+    }
+    HashTrieSet<E> result = empty();
+    for (var element : elements) {
+      result = result.plus(element);
+    }
+    return result;
+  }
+
+  public HashTrieSet<E> plus(E element) {
+    var updated = map.plus(element, Boolean.TRUE);
+    return updated == map ? this : new HashTrieSet<>(updated);
+  }
+
+  public HashTrieSet<E> minus(Object element) {
+    var updated = map.minus(element);
+    return updated == map ? this : new HashTrieSet<>(updated);
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return map.containsKey(element);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+}
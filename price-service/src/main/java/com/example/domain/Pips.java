@@ -0,0 +1,17 @@
+package com.example.domain;
+
+public final class Pips {
+
+  private Pips() {}
+
+  /**
+   * Pip size of a currency pair: 0.01 for JPY-quoted pairs, 0.0001 otherwise.
+   */
+  public static double size(String ccyPair) {
+    return ccyPair.endsWith("JPY") ? 0.01 : 0.0001;
+  }
+
+  public static double between(String ccyPair, double from, double to) {
+    return Math.abs(to - from) / size(ccyPair);
+  }
+}
@@ -1,23 +1,93 @@
 package com.example.domain;
 
 import java.util.*;
+import java.util.function.Supplier;
 
-public record Price(String ccyPair, List<String> subscriptions, Optional<PriceRate> lastPriceRate) {
+/**
+ * State of a currency pair. {@code subscriptions} and {@code subscriberTerms} (credit status and markup per
+ * subscriber) are persistent hash tries: every {@code withX} returns a new state sharing all but O(log n) nodes
+ * with the previous one, so states stay immutable and replaying a pair with many subscribers stays near-linear.
+ */
+public record Price(String ccyPair, Set<String> subscriptions, Optional<PriceRate> lastPriceRate, Optional<SubscriberSnapshot> subscriberSnapshot, Map<String, SubscriberTerms> subscriberTerms) {
+
+  public Price {
+    subscriptions = HashTrieSet.copyOf(subscriptions);
+    subscriberTerms = subscriberTerms == null ? HashTrieMap.empty() : HashTrieMap.copyOf(subscriberTerms);
+  }
+
+  public Price(String ccyPair, Set<String> subscriptions, Optional<PriceRate> lastPriceRate, Optional<SubscriberSnapshot> subscriberSnapshot) {
+    this(ccyPair, subscriptions, lastPriceRate, subscriberSnapshot, HashTrieMap.empty());
+  }
+
+  public Price(String ccyPair, Set<String> subscriptions, Optional<PriceRate> lastPriceRate) {
+    this(ccyPair, subscriptions, lastPriceRate, Optional.empty());
+  }
+
+  public static Price empty(String ccyPair) {
+    return new Price(ccyPair, HashTrieSet.empty(), Optional.empty());
+  }
 
   public Price withPriceRate(PriceRate lastPriceRate) {
-    return new Price(ccyPair, subscriptions, Optional.ofNullable(lastPriceRate));
+    return new Price(ccyPair, subscriptions, Optional.ofNullable(lastPriceRate), subscriberSnapshot, subscriberTerms);
   }
 
   public Price withSubscription(String clientId) {
-    var updated = new ArrayList<>(subscriptions);
-    updated.add(clientId);
-    return new Price(ccyPair, List.copyOf(updated), lastPriceRate);
+    return new Price(ccyPair, subscriptionSet().plus(clientId), lastPriceRate, subscriberSnapshot, subscriberTerms);
   }
 
   public Price withoutSubscription(String clientId) {
-    var updated = new ArrayList<>(subscriptions);
-    updated.remove(clientId);
-    return new Price(ccyPair, List.copyOf(updated), lastPriceRate);
+    return new Price(ccyPair, subscriptionSet().minus(clientId), lastPriceRate, subscriberSnapshot, termsMap().minus(clientId));
+  }
+
+  public Price withSubscriberTerms(String clientId, SubscriberTerms terms) {
+    if (!subscriptions.contains(clientId)) {
+      return this;
+    }
+    return new Price(ccyPair, subscriptions, lastPriceRate, subscriberSnapshot, termsMap().plus(clientId, terms));
+  }
+
+  // the canonical constructor guarantees both
+  private HashTrieSet<String> subscriptionSet() {
+    return (HashTrieSet<String>) subscriptions;
+  }
+
+  private HashTrieMap<String, SubscriberTerms> termsMap() {
+    return (HashTrieMap<String, SubscriberTerms>) subscriberTerms;
+  }
+
+  public SubscriberTerms termsOf(String clientId) {
+    return subscriberTerms.getOrDefault(clientId, SubscriberTerms.UNKNOWN);
+  }
+
+  /**
+   * One quota per subscriber, built from the terms held in this state; subscribers whose terms have not
+   * arrived yet are quoted with unknown credit and no markup.
+   */
+  public List<PriceRateClientQuota> quotas(Supplier<String> quotaId) {
+    var quotas = new ArrayList<PriceRateClientQuota>(subscriptions.size());
+    for (var clientId : subscriptions) {
+      var terms = termsOf(clientId);
+      quotas.add(new PriceRateClientQuota(quotaId.get(), clientId, terms.creditStatus(), terms.markup()));
+    }
+    return quotas;
+  }
+
+  public Price withSubscriberSnapshot(String snapshotId, long version, List<SubscriberCredit> subscribers) {
+    var snapshot = SubscriberSnapshot.of(snapshotId, version, subscribers);
+    return new Price(ccyPair, subscriptions, lastPriceRate, Optional.of(snapshot), subscriberTerms);
+  }
+
+  /**
+   * The current snapshot id if it matches the given subscriber credits and markups, empty if a new snapshot is needed.
+   */
+  public Optional<String> matchingSnapshotId(List<SubscriberCredit> subscribers) {
+    return subscriberSnapshot
+        .filter(s -> s.hasSameTerms(subscribers))
+        .map(SubscriberSnapshot::snapshotId);
+  }
+
+  public long nextSnapshotVersion() {
+    return subscriberSnapshot.map(s -> s.version() + 1).orElse(1L);
   }
 
   public boolean isSubscribed(String clientId) {
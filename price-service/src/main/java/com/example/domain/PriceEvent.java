@@ -19,8 +19,31 @@ public sealed interface PriceEvent {
   @TypeName("all-unsubscribed")
   record AllUnsubscribed(String ccyPair) implements PriceEvent {}
 
+  // forwards are the tenors priced off this spot rate; absent in events written before forward pricing
   @TypeName("price-rate-added")
-  record PriceRateAdded(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) implements PriceEvent {}
-
+  record PriceRateAdded(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas, List<ForwardPriceRate> forwards) implements PriceEvent {
+    public PriceRateAdded {
+      forwards = forwards == null ? List.of() : forwards;
+    }
+
+    public PriceRateAdded(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+      this(ccyPair, priceRate, quotas, List.of());
+    }
+  }
+
+  @TypeName("subscriber-snapshot-updated")
+  record SubscriberSnapshotUpdated(String ccyPair, String snapshotId, long version, List<SubscriberCredit> subscribers) implements PriceEvent {}
+
+  // quotas are derived from the referenced snapshot with PriceRateClientQuota.quotaId(priceRateId, clientId)
+  @TypeName("compact-price-rate-added")
+  record CompactPriceRateAdded(String ccyPair, PriceRate priceRate, String snapshotId) implements PriceEvent {}
+
+  // denormalized from ClientWorkflow so ticks can be quoted from the entity state alone
+  @TypeName("subscriber-terms-updated")
+  record SubscriberTermsUpdated(String clientId, SubscriberTerms terms) implements PriceEvent {}
+
+  // last rate of the in-memory fast path; carries no quotas and is not projected to quota consumers
+  @TypeName("price-rate-checkpointed")
+  record PriceRateCheckpointed(String ccyPair, PriceRate priceRate) implements PriceEvent {}
 
 }
\ No newline at end of file
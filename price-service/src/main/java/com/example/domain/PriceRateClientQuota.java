@@ -1,3 +1,23 @@
 package com.example.domain;
 
-public record PriceRateClientQuota(String quotaId, String clientId, CreditStatus creditStatus) {}
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * {@code markup} is the client's spread markup in price units, subtracted from the bid and added to the ask
+ * of the rate; 0 for quotas issued before client spreads.
+ */
+public record PriceRateClientQuota(String quotaId, String clientId, CreditStatus creditStatus, double markup) {
+
+  public PriceRateClientQuota(String quotaId, String clientId, CreditStatus creditStatus) {
+    this(quotaId, clientId, creditStatus, 0.0);
+  }
+
+  /**
+   * Deterministic quotaId for a client on a given price rate, so compact events can omit the quota list
+   * and every reader derives the same id.
+   */
+  public static String quotaId(String priceRateId, String clientId) {
+    return UUID.nameUUIDFromBytes((priceRateId + ":" + clientId).getBytes(StandardCharsets.UTF_8)).toString();
+  }
+}
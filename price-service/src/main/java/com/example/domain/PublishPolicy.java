@@ -0,0 +1,37 @@
+package com.example.domain;
+
+import java.time.Duration;
+
+/**
+ * When a tick for a ccyPair is worth publishing, compared to the last published one:
+ * <ul>
+ *   <li>never sooner than {@code minInterval} after it (maximum publish rate),</li>
+ *   <li>when bid or ask moved by at least {@code minMovePips},</li>
+ *   <li>or on any change once {@code refreshInterval} has passed, so small drifts are not withheld forever.</li>
+ * </ul>
+ * Zero values disable the respective rule.
+ */
+public record PublishPolicy(double minMovePips, Duration minInterval, Duration refreshInterval) {
+
+  public static final PublishPolicy NONE = new PublishPolicy(0, Duration.ZERO, Duration.ZERO);
+
+  public record Published(double bid, double ask, long atMs) {}
+
+  public boolean shouldPublish(String ccyPair, Published last, double bid, double ask, long nowMs) {
+    if (last == null) {
+      return true;
+    }
+    if (last.bid() == bid && last.ask() == ask) {
+      return false;
+    }
+    var elapsedMs = nowMs - last.atMs();
+    if (elapsedMs < minInterval.toMillis()) {
+      return false;
+    }
+    if (!refreshInterval.isZero() && elapsedMs >= refreshInterval.toMillis()) {
+      return true;
+    }
+    var movePips = Math.max(Pips.between(ccyPair, last.bid(), bid), Pips.between(ccyPair, last.ask(), ask));
+    return movePips >= minMovePips;
+  }
+}
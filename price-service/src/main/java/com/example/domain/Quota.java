@@ -10,4 +10,20 @@ public record Quota(
     double ask,
     CreditStatus creditStatus,
     long timestamp) {
+
+  public static Quota of(String ccyPair, PriceRate priceRate, PriceRateClientQuota quota) {
+    return new Quota(quota.quotaId(), priceRate.priceRateId(), quota.clientId(), ccyPair, priceRate.tenor(),
+        priceRate.bid() - quota.markup(), priceRate.ask() + quota.markup(), quota.creditStatus(), priceRate.timestamp());
+  }
+
+  /**
+   * Marks up a quota issued at the rate itself by the client's spread markup.
+   */
+  public Quota withMarkup(double markup) {
+    return new Quota(quotaId, priceRateId, clientId, ccyPair, tenor, bid - markup, ask + markup, creditStatus, timestamp);
+  }
+
+  public Quota withCreditStatus(CreditStatus newCreditStatus) {
+    return new Quota(quotaId, priceRateId, clientId, ccyPair, tenor, bid, ask, newCreditStatus, timestamp);
+  }
 }
\ No newline at end of file
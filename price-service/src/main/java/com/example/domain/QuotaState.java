@@ -1,10 +1,53 @@
 package com.example.domain;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
-public record QuotaState(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+/**
+ * Quotas issued for one price rate. In compact mode {@code quotas} is empty and {@code snapshotId}
+ * references the subscriber snapshot the quotas are derived from. {@code expiresAt} (epoch millis) ends the
+ * validity of the quotes; 0 means they do not expire, which is also what states persisted without it read as.
+ *
+ * <p>{@code quotas} stays a list in the persisted state; lookups by clientId go through {@link #indexed()}.
+ */
+public record QuotaState(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas, Optional<String> snapshotId, long expiresAt) {
+
+  /**
+   * In-memory index of a state by clientId, built once and reused for every lookup of the same state.
+   */
+  public record Indexed(QuotaState state, Map<String, PriceRateClientQuota> quotasByClientId) {
+
+    public Optional<Quota> quota(String clientId) {
+      return Optional.ofNullable(quotasByClientId.get(clientId))
+          .map(pq -> Quota.of(state.ccyPair(), state.priceRate(), pq));
+    }
+  }
+
+  public QuotaState(String ccyPair, PriceRate priceRate, List<PriceRateClientQuota> quotas) {
+    this(ccyPair, priceRate, quotas, Optional.empty(), 0L);
+  }
 
   public static QuotaState empty() {
     return new QuotaState(null,null, List.of());
   }
-}
\ No newline at end of file
+
+  public boolean isCompact() {
+    return snapshotId.isPresent();
+  }
+
+  public boolean isExpired(long nowMs) {
+    return expiresAt > 0 && nowMs >= expiresAt;
+  }
+
+  public Indexed indexed() {
+    var index = new HashMap<String, PriceRateClientQuota>(quotas.size() * 2);
+    quotas.forEach(q -> index.put(q.clientId(), q));
+    return new Indexed(this, index);
+  }
+
+  public Quota compactQuota(String clientId, CreditStatus creditStatus) {
+    return Quota.of(ccyPair, priceRate, new PriceRateClientQuota(PriceRateClientQuota.quotaId(priceRate.priceRateId(), clientId), clientId, creditStatus));
+  }
+}
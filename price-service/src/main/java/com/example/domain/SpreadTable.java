@@ -0,0 +1,46 @@
+package com.example.domain;
+
+/**
+ * Precomputed client markups of one currency pair, indexed by profile ({@code tier * bands + band}).
+ * Markups are configured in pips and stored in price units, so pricing a tick for all subscribers is a
+ * gather over primitive arrays.
+ */
+public final class SpreadTable {
+
+  private final int bands;
+  private final double[] markups;
+
+  /**
+   * @param markupPips markup in pips per tier (outer) and size band (inner); every tier needs {@code bands} values
+   */
+  public SpreadTable(String ccyPair, int bands, double[][] markupPips) {
+    this.bands = bands;
+    this.markups = new double[markupPips.length * bands];
+    var pipSize = Pips.size(ccyPair);
+    for (int tier = 0; tier < markupPips.length; tier++) {
+      if (markupPips[tier].length != bands) {
+        throw new IllegalArgumentException("Spread table for " + ccyPair + " needs " + bands + " size bands per tier");
+      }
+      for (int band = 0; band < bands; band++) {
+        markups[tier * bands + band] = markupPips[tier][band] * pipSize;
+      }
+    }
+  }
+
+  public int profile(int tier, int band) {
+    return tier * bands + band;
+  }
+
+  public double markup(int profile) {
+    return markups[profile];
+  }
+
+  /**
+   * Writes the markup of each of the first {@code count} profiles into {@code markupsOut}.
+   */
+  public void apply(int[] profiles, int count, double[] markupsOut) {
+    for (int i = 0; i < count; i++) {
+      markupsOut[i] = markups[profiles[i]];
+    }
+  }
+}
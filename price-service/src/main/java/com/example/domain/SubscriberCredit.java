@@ -0,0 +1,16 @@
+package com.example.domain;
+
+/**
+ * {@code markup} is the client's spread markup for the pair (see {@link PriceRateClientQuota}); 0 in snapshots
+ * stored before compact quotas carried client spreads.
+ */
+public record SubscriberCredit(String clientId, CreditStatus creditStatus, double markup) {
+
+  public SubscriberCredit(String clientId, CreditStatus creditStatus) {
+    this(clientId, creditStatus, 0.0);
+  }
+
+  public PriceRateClientQuota toQuota(String priceRateId) {
+    return new PriceRateClientQuota(PriceRateClientQuota.quotaId(priceRateId, clientId), clientId, creditStatus, markup);
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.domain;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Versioned set of subscribers with their credit status and spread markup for a currency pair, referenced by
+ * compact price rate events instead of embedding the per-client quota list. Only non-zero markups are kept.
+ */
+public record SubscriberSnapshot(String snapshotId, long version, Map<String, CreditStatus> credits, Map<String, Double> markups) {
+
+  // markups are absent in snapshots stored before compact quotas carried client spreads
+  public SubscriberSnapshot {
+    markups = markups == null ? Map.of() : markups;
+  }
+
+  public static SubscriberSnapshot of(String snapshotId, long version, List<SubscriberCredit> subscribers) {
+    return new SubscriberSnapshot(snapshotId, version, toCredits(subscribers), toMarkups(subscribers));
+  }
+
+  public static String snapshotId(String ccyPair, long version) {
+    return ccyPair + "-" + version;
+  }
+
+  public static long version(String snapshotId) {
+    return Long.parseLong(snapshotId.substring(snapshotId.lastIndexOf('-') + 1));
+  }
+
+  public static Map<String, CreditStatus> toCredits(List<SubscriberCredit> subscribers) {
+    var credits = new LinkedHashMap<String, CreditStatus>();
+    subscribers.forEach(s -> credits.put(s.clientId(), s.creditStatus()));
+    return credits;
+  }
+
+  public static Map<String, Double> toMarkups(List<SubscriberCredit> subscribers) {
+    var markups = new LinkedHashMap<String, Double>();
+    subscribers.stream()
+        .filter(s -> s.markup() != 0.0)
+        .forEach(s -> markups.put(s.clientId(), s.markup()));
+    return markups;
+  }
+
+  public boolean hasSameTerms(List<SubscriberCredit> subscribers) {
+    return credits.equals(toCredits(subscribers)) && markups.equals(toMarkups(subscribers));
+  }
+
+  public Optional<SubscriberCredit> subscriber(String clientId) {
+    return Optional.ofNullable(credits.get(clientId))
+        .map(creditStatus -> new SubscriberCredit(clientId, creditStatus, markups.getOrDefault(clientId, 0.0)));
+  }
+
+  public List<SubscriberCredit> subscribers() {
+    return credits.entrySet().stream()
+        .map(e -> new SubscriberCredit(e.getKey(), e.getValue(), markups.getOrDefault(e.getKey(), 0.0)))
+        .toList();
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.domain;
+
+/**
+ * What a subscriber's quotas are built with: the client's current credit status and its spread markup for the pair.
+ */
+public record SubscriberTerms(CreditStatus creditStatus, double markup) {
+
+  public static final SubscriberTerms UNKNOWN = new SubscriberTerms(CreditStatus.UNKNOWN, 0.0);
+}
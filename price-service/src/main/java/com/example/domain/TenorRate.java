@@ -0,0 +1,4 @@
+package com.example.domain;
+
+public record TenorRate(String tenor, double bid, double ask) {
+}
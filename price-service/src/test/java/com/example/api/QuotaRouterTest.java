@@ -0,0 +1,65 @@
+package com.example.api;
+
+import akka.actor.ActorSystem;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.example.domain.CreditStatus;
+import com.example.domain.Quota;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QuotaRouterTest {
+
+  private static final ActorSystem system = ActorSystem.create("quota-router-test");
+  private static final Materializer materializer = Materializer.matFromSystem(system);
+
+  @AfterAll
+  public static void afterAll() {
+    system.terminate();
+  }
+
+  private static Quota quota(String tenor) {
+    return new Quota("quota-" + tenor, "rate-" + tenor, "client-1", "EURUSD", tenor, 1.1050, 1.1055, CreditStatus.OK, 1700000000000L);
+  }
+
+  // spot and forward quotas of one rate reach the router back to back
+  private static final List<Quota> SPOT_AND_FORWARDS = List.of(quota("SPOT"), quota("1W"), quota("1M"), quota("3M"));
+
+  @Test
+  public void shouldNotDropABurstOfQuotasWithDropOldest() throws Exception {
+    assertRoutedWithoutDrops(QuotaRouter.OverflowPolicy.DROP_OLDEST);
+  }
+
+  @Test
+  public void shouldNotDropABurstOfQuotasWithConflate() throws Exception {
+    assertRoutedWithoutDrops(QuotaRouter.OverflowPolicy.CONFLATE);
+  }
+
+  @Test
+  public void shouldNotDropABurstOfQuotasWithDisconnect() throws Exception {
+    assertRoutedWithoutDrops(QuotaRouter.OverflowPolicy.DISCONNECT);
+  }
+
+  private static void assertRoutedWithoutDrops(QuotaRouter.OverflowPolicy policy) throws Exception {
+    // the upstream starts with the first subscription, so the whole burst is routed to it
+    var router = new QuotaRouter(null, Source.from(SPOT_AND_FORWARDS),
+        new QuotaRouter.Settings(false, Duration.ofSeconds(1), 16, policy), materializer);
+
+    var received = router.subscribe("client-1")
+        .take(SPOT_AND_FORWARDS.size())
+        .runWith(Sink.seq(), materializer)
+        .toCompletableFuture()
+        .get(5, TimeUnit.SECONDS);
+
+    assertThat(received).containsExactlyElementsOf(SPOT_AND_FORWARDS);
+    assertThat(router.stats().dropped()).isZero();
+    assertThat(router.stats().unrouted()).isZero();
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.application;
+
+import akka.javasdk.testkit.KeyValueEntityTestKit;
+import com.example.domain.CreditStatus;
+import com.example.domain.Quota;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientQuotaEntityTest {
+
+  @Test
+  public void shouldKeepLatestQuota() {
+    var testKit = KeyValueEntityTestKit.of(ClientQuotaEntity.entityId("client-1", "EURUSD"), ClientQuotaEntity::new);
+    var older = new Quota("q1", "rate-1", "client-1", "EURUSD", "SPOT", 1.1050, 1.1055, CreditStatus.OK, 1700000000000L);
+    var newer = new Quota("q2", "rate-2", "client-1", "EURUSD", "SPOT", 1.1051, 1.1056, CreditStatus.OK, 1700000000100L);
+
+    testKit.method(ClientQuotaEntity::update).invoke(newer);
+    var result = testKit.method(ClientQuotaEntity::update).invoke(older);
+
+    assertThat(result.isReply()).isTrue();
+    assertThat(testKit.getState()).isEqualTo(newer);
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.application;
+
+import com.example.domain.CreditStatus;
+import com.example.domain.PriceRateClientQuota;
+import com.example.domain.SpreadTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ClientSpreadEngineTest {
+
+  // tiers standard (0) and gold (1), one size band
+  private final SpreadTable defaultTable = new SpreadTable("default", 1, new double[][]{{1.0}, {0.2}});
+  private final SpreadTable jpyTable = new SpreadTable("USDJPY", 1, new double[][]{{2.0}, {0.5}});
+  private final ClientSpreadEngine engine = new ClientSpreadEngine(
+      defaultTable, Map.of("USDJPY", jpyTable), Map.of("gold-client", 1), 0);
+
+  private final List<ClientView.ClientEntry> subscribers = List.of(
+      new ClientView.ClientEntry("gold-client", CreditStatus.OK),
+      new ClientView.ClientEntry("other-client", CreditStatus.FAIL));
+
+  @Test
+  public void shouldMarkUpEachSubscriberByItsProfile() {
+    var quotas = engine.quotas("EURUSD", subscribers, () -> "q");
+
+    assertThat(quotas).extracting(PriceRateClientQuota::clientId).containsExactly("gold-client", "other-client");
+    assertThat(quotas).extracting(PriceRateClientQuota::creditStatus).containsExactly(CreditStatus.OK, CreditStatus.FAIL);
+    assertThat(quotas.get(0).markup()).isCloseTo(0.2 * 0.0001, within(1e-12));
+    assertThat(quotas.get(1).markup()).isCloseTo(1.0 * 0.0001, within(1e-12));
+  }
+
+  @Test
+  public void shouldUseThePairTableAndPipSize() {
+    var quotas = engine.quotas("USDJPY", subscribers, () -> "q");
+
+    assertThat(quotas.get(0).markup()).isCloseTo(0.5 * 0.01, within(1e-12));
+    assertThat(quotas.get(1).markup()).isCloseTo(2.0 * 0.01, within(1e-12));
+    assertThat(engine.markup("USDJPY", "gold-client")).isCloseTo(0.5 * 0.01, within(1e-12));
+  }
+
+  @Test
+  public void shouldResolveMarkupsAgainWhenTheSubscriberListChanges() {
+    engine.quotas("EURUSD", subscribers, () -> "q");
+
+    var changed = List.of(new ClientView.ClientEntry("other-client", CreditStatus.OK));
+    var quotas = engine.quotas("EURUSD", changed, () -> "q");
+
+    assertThat(quotas).hasSize(1);
+    assertThat(quotas.get(0).markup()).isCloseTo(1.0 * 0.0001, within(1e-12));
+    // the same list again is served from the cached markups
+    assertThat(engine.quotas("EURUSD", changed, () -> "q").get(0).markup()).isEqualTo(quotas.get(0).markup());
+  }
+}
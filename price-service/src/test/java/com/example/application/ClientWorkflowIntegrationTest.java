@@ -0,0 +1,87 @@
+package com.example.application;
+
+import akka.javasdk.testkit.TestKitSupport;
+import com.example.domain.ClientWorkflowState;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientWorkflowIntegrationTest extends TestKitSupport {
+
+  @Test
+  public void shouldRunConcurrentSubscribeAndUnsubscribeCommandsInOrder() {
+    var clientId = "workflow-concurrent-client-1";
+
+    componentClient.forWorkflow(clientId)
+        .method(ClientWorkflow::subscribe)
+        .invoke("GBPJPY");
+    awaitIdle(clientId);
+
+    var workflow = componentClient.forWorkflow(clientId);
+    CompletableFuture.allOf(
+        workflow.method(ClientWorkflow::subscribe).invokeAsync("AUDUSD").toCompletableFuture(),
+        workflow.method(ClientWorkflow::subscribe).invokeAsync("USDCAD").toCompletableFuture(),
+        workflow.method(ClientWorkflow::subscribeAll)
+            .invokeAsync(new ClientWorkflow.BatchSubscription(List.of("EURCHF", "EURSEK"))).toCompletableFuture(),
+        workflow.method(ClientWorkflow::unsubscribe).invokeAsync("GBPJPY").toCompletableFuture()
+    ).join();
+
+    Awaitility.await().atMost(20, TimeUnit.SECONDS).untilAsserted(() -> {
+      var state = workflow.method(ClientWorkflow::getState).invoke();
+      assertThat(state.status()).isEqualTo(ClientWorkflowState.Status.IDLE);
+      assertThat(state.queued()).isEmpty();
+      assertThat(state.subscriptions()).containsExactlyInAnyOrder("AUDUSD", "USDCAD", "EURCHF", "EURSEK");
+    });
+
+    for (var ccyPair : List.of("AUDUSD", "USDCAD", "EURCHF", "EURSEK")) {
+      assertThat(subscribersOf(ccyPair)).contains(clientId);
+    }
+    assertThat(subscribersOf("GBPJPY")).doesNotContain(clientId);
+  }
+
+  @Test
+  public void shouldEndSubscribedWhenUnsubscribeAndResubscribeRace() {
+    var clientId = "workflow-concurrent-client-2";
+
+    componentClient.forWorkflow(clientId)
+        .method(ClientWorkflow::subscribeAll)
+        .invoke(new ClientWorkflow.BatchSubscription(List.of("NZDUSD", "USDSEK")));
+    awaitIdle(clientId);
+
+    var workflow = componentClient.forWorkflow(clientId);
+    CompletableFuture.allOf(
+        workflow.method(ClientWorkflow::unsubscribe).invokeAsync("NZDUSD").toCompletableFuture(),
+        workflow.method(ClientWorkflow::unsubscribe).invokeAsync("USDSEK").toCompletableFuture()
+    ).join();
+    workflow.method(ClientWorkflow::subscribe).invoke("NZDUSD");
+
+    Awaitility.await().atMost(20, TimeUnit.SECONDS).untilAsserted(() -> {
+      var state = workflow.method(ClientWorkflow::getState).invoke();
+      assertThat(state.status()).isEqualTo(ClientWorkflowState.Status.IDLE);
+      assertThat(state.subscriptions()).containsExactly("NZDUSD");
+    });
+
+    assertThat(subscribersOf("NZDUSD")).contains(clientId);
+    assertThat(subscribersOf("USDSEK")).doesNotContain(clientId);
+  }
+
+  private List<String> subscribersOf(String ccyPair) {
+    return componentClient.forEventSourcedEntity(ccyPair)
+        .method(PriceEntity::getSubscriptions)
+        .invoke();
+  }
+
+  private void awaitIdle(String clientId) {
+    Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+      var state = componentClient.forWorkflow(clientId)
+          .method(ClientWorkflow::getState)
+          .invoke();
+      assertThat(state.status()).isEqualTo(ClientWorkflowState.Status.IDLE);
+    });
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.application;
+
+import com.example.domain.CreditStatus;
+import com.example.domain.CreditStatusEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CreditStatusConflatorTest {
+
+  private final List<CreditStatusEvent> applied = new CopyOnWriteArrayList<>();
+  private final AtomicInteger failuresLeft = new AtomicInteger();
+  private final CreditStatusConflator conflator = new CreditStatusConflator(Duration.ofMillis(200), event -> {
+    if (failuresLeft.getAndDecrement() > 0) {
+      throw new IllegalStateException("workflow unavailable");
+    }
+    applied.add(event);
+  });
+
+  private static CreditStatusEvent event(String clientId, CreditStatus status, long tsMs) {
+    return new CreditStatusEvent(clientId, status, "test", tsMs);
+  }
+
+  @Test
+  public void shouldApplyOnlyTheNewestStatusPerClient() {
+    conflator.offer(event("client-1", CreditStatus.OK, 1));
+    conflator.offer(event("client-1", CreditStatus.FAIL, 3));
+    conflator.offer(event("client-1", CreditStatus.OK, 2));
+    conflator.offer(event("client-2", CreditStatus.OK, 1));
+
+    conflator.flush().join();
+
+    assertThat(applied).containsExactlyInAnyOrder(
+        event("client-1", CreditStatus.FAIL, 3),
+        event("client-2", CreditStatus.OK, 1));
+    assertThat(conflator.stats()).isEqualTo(new CreditStatusConflator.Stats(200, 4, 2, 0, 2, 0, 0));
+  }
+
+  @Test
+  public void shouldIgnoreAStatusOlderThanTheAppliedOne() {
+    conflator.offer(event("client-1", CreditStatus.FAIL, 5));
+    conflator.flush().join();
+    conflator.offer(event("client-1", CreditStatus.OK, 4));
+    conflator.flush().join();
+
+    assertThat(applied).containsExactly(event("client-1", CreditStatus.FAIL, 5));
+    assertThat(conflator.stats().stale()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRetryAFailedStatusInTheNextWindow() {
+    failuresLeft.set(1);
+    conflator.offer(event("client-1", CreditStatus.FAIL, 1));
+
+    conflator.flush().join();
+    assertThat(applied).isEmpty();
+    assertThat(conflator.stats().failed()).isEqualTo(1);
+    assertThat(conflator.stats().pending()).isEqualTo(1);
+
+    conflator.flush().join();
+    assertThat(applied).containsExactly(event("client-1", CreditStatus.FAIL, 1));
+    assertThat(conflator.stats().pending()).isZero();
+  }
+
+  @Test
+  public void shouldPreferANewerStatusOverTheRetry() {
+    failuresLeft.set(1);
+    conflator.offer(event("client-1", CreditStatus.FAIL, 1));
+    conflator.flush().join();
+    conflator.offer(event("client-1", CreditStatus.OK, 2));
+
+    conflator.flush().join();
+
+    assertThat(applied).containsExactly(event("client-1", CreditStatus.OK, 2));
+  }
+
+  @Test
+  public void shouldApplyEveryStatusRightAwayWhenDisabled() {
+    var direct = new CreditStatusConflator(Duration.ZERO, applied::add);
+
+    direct.offer(event("client-1", CreditStatus.OK, 1));
+    direct.offer(event("client-1", CreditStatus.FAIL, 2));
+
+    assertThat(applied).extracting(CreditStatusEvent::status).containsExactly(CreditStatus.OK, CreditStatus.FAIL);
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.application;
+
+import akka.actor.ActorSystem;
+import akka.stream.Materializer;
+import com.example.client.Instrument;
+import com.example.domain.FxRateEvent;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FxRateConflatorTest {
+
+  private static ActorSystem system;
+  private static Materializer materializer;
+
+  @BeforeAll
+  public static void setUp() {
+    system = ActorSystem.create("FxRateConflatorTest");
+    materializer = Materializer.matFromSystem(system);
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    system.terminate();
+  }
+
+  private static FxRateEvent tick(String ccyPair, long seq) {
+    return new FxRateEvent(new Instrument(ccyPair, "SPOT"), 1.1 + seq / 10000.0, 1.1002 + seq / 10000.0, seq, 1700000000000L + seq);
+  }
+
+  @Test
+  public void shouldProcessEveryTickInlineWhenDisabled() {
+    var processed = new CopyOnWriteArrayList<FxRateEvent>();
+    var conflator = new FxRateConflator(Duration.ZERO, processed::add, materializer);
+
+    conflator.offer(tick("EURUSD", 1));
+    conflator.offer(tick("EURUSD", 2));
+
+    assertThat(processed).extracting(FxRateEvent::seq).containsExactly(1L, 2L);
+    assertThat(conflator.stats().emitted()).isEqualTo(2);
+    assertThat(conflator.stats().conflated()).isZero();
+  }
+
+  @Test
+  public void shouldKeepLatestTickPerKey() {
+    var processed = new CopyOnWriteArrayList<FxRateEvent>();
+    var conflator = new FxRateConflator(Duration.ofMillis(200), processed::add, materializer);
+
+    for (long seq = 1; seq <= 100; seq++) {
+      conflator.offer(tick("EURUSD", seq));
+    }
+    conflator.offer(tick("GBPUSD", 1));
+
+    Awaitility.await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> {
+          var eurusd = processed.stream().filter(e -> e.instrument().ccyPair().equals("EURUSD")).toList();
+          assertThat(eurusd).isNotEmpty();
+          assertThat(eurusd.getLast().seq()).isEqualTo(100);
+          assertThat(processed).anyMatch(e -> e.instrument().ccyPair().equals("GBPUSD"));
+        });
+    var stats = conflator.stats();
+    assertThat(stats.received()).isEqualTo(101);
+    assertThat(stats.conflated()).isPositive();
+    assertThat(stats.emitted()).isEqualTo(stats.received() - stats.conflated());
+  }
+
+  @Test
+  public void shouldKeepProcessingAfterAFailure() {
+    var processed = new CopyOnWriteArrayList<Long>();
+    var conflator = new FxRateConflator(Duration.ofMillis(50), event -> {
+      if (event.seq() == 1) {
+        throw new IllegalStateException("boom");
+      }
+      processed.add(event.seq());
+    }, materializer);
+
+    conflator.offer(tick("EURUSD", 1));
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> conflator.stats().emitted() == 1);
+    conflator.offer(tick("EURUSD", 2));
+
+    Awaitility.await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(processed).isEqualTo(List.of(2L)));
+  }
+}
@@ -3,11 +3,18 @@ package com.example.application;
 import akka.Done;
 import akka.javasdk.testkit.EventSourcedTestKit;
 import com.example.domain.CreditStatus;
+import com.example.domain.ForwardPriceRate;
 import com.example.domain.PriceEvent;
+import com.example.domain.PriceRate;
 import com.example.domain.PriceRateClientQuota;
+import com.example.domain.SubscriberCredit;
+import com.example.domain.SubscriberTerms;
+import com.example.domain.TenorRate;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -129,6 +136,109 @@ public class PriceEntityTest {
     assertThat(testKit.getState().lastPriceRate()).isPresent();
   }
 
+  @Test
+  public void shouldAddForwardRatesWithTheSpotRate() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+
+    var quotas = List.of(new PriceRateClientQuota("q1", "client-1", CreditStatus.OK));
+    var forwards = List.of(new TenorRate("1M", 1.1060, 1.1066), new TenorRate("3M", 1.1080, 1.1087));
+    var update = new PriceEntity.PriceRateUpdate("SPOT", 1.1050, 1.1055, 1, 1700000000000L, quotas, Optional.empty(), false, forwards);
+    var result = testKit.method(PriceEntity::priceRateUpdate).invoke(update);
+
+    var event = result.getNextEventOfType(PriceEvent.PriceRateAdded.class);
+    assertThat(event.forwards()).extracting(f -> f.priceRate().tenor()).containsExactly("1M", "3M");
+    var forward = event.forwards().get(0);
+    assertThat(forward.priceRate().priceRateId()).isEqualTo(ForwardPriceRate.priceRateId(event.priceRate().priceRateId(), "1M"));
+    // forward quotas are derived from the spot quotas, not persisted
+    assertThat(forward.quotas()).isEmpty();
+    var forwardQuotas = forward.quotasFor(event.quotas());
+    assertThat(forwardQuotas).extracting(PriceRateClientQuota::clientId).containsExactly("client-1");
+    assertThat(forwardQuotas.get(0).quotaId()).isEqualTo(PriceRateClientQuota.quotaId(forward.priceRate().priceRateId(), "client-1"));
+    assertThat(testKit.getState().lastPriceRate().get().tenor()).isEqualTo("SPOT");
+  }
+
+  @Test
+  public void shouldQuoteTickFromSubscriberTerms() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+    testKit.method(PriceEntity::subscribe).invoke("client-2");
+    testKit.method(PriceEntity::updateSubscriberTerms).invoke(new PriceEntity.SubscriberTermsUpdate("client-1", CreditStatus.OK, 0.0002));
+
+    var result = testKit.method(PriceEntity::priceRateTick).invoke(new PriceEntity.PriceRateTick("SPOT", 1.1050, 1.1055, 1, 1700000000000L));
+
+    var event = result.getNextEventOfType(PriceEvent.PriceRateAdded.class);
+    assertThat(event.quotas()).extracting(PriceRateClientQuota::clientId).containsExactlyInAnyOrder("client-1", "client-2");
+    var byClient = event.quotas().stream().collect(Collectors.toMap(PriceRateClientQuota::clientId, q -> q));
+    assertThat(byClient.get("client-1").creditStatus()).isEqualTo(CreditStatus.OK);
+    assertThat(byClient.get("client-1").markup()).isEqualTo(0.0002);
+    assertThat(byClient.get("client-2").creditStatus()).isEqualTo(CreditStatus.UNKNOWN);
+  }
+
+  @Test
+  public void shouldQuoteCompactTickFromSubscriberTerms() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+    testKit.method(PriceEntity::updateSubscriberTerms).invoke(new PriceEntity.SubscriberTermsUpdate("client-1", CreditStatus.OK, 0.0));
+
+    var result = testKit.method(PriceEntity::priceRateTick)
+        .invoke(new PriceEntity.PriceRateTick("SPOT", 1.1050, 1.1055, 1, 1700000000000L, Optional.of("rate-1"), true, List.of()));
+
+    var snapshot = result.getNextEventOfType(PriceEvent.SubscriberSnapshotUpdated.class);
+    assertThat(snapshot.subscribers()).containsExactly(new SubscriberCredit("client-1", CreditStatus.OK));
+    var rate = result.getNextEventOfType(PriceEvent.CompactPriceRateAdded.class);
+    assertThat(rate.snapshotId()).isEqualTo(snapshot.snapshotId());
+  }
+
+  @Test
+  public void shouldKeepMarkupsInTheSnapshotOfACompactTick() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+    testKit.method(PriceEntity::updateSubscriberTerms).invoke(new PriceEntity.SubscriberTermsUpdate("client-1", CreditStatus.OK, 0.0002));
+    var tick = new PriceEntity.PriceRateTick("SPOT", 1.1050, 1.1055, 1, 1700000000000L, Optional.of("rate-1"), true, List.of());
+
+    var first = testKit.method(PriceEntity::priceRateTick).invoke(tick);
+    assertThat(first.getNextEventOfType(PriceEvent.SubscriberSnapshotUpdated.class).subscribers())
+        .containsExactly(new SubscriberCredit("client-1", CreditStatus.OK, 0.0002));
+
+    // a changed markup needs a new snapshot, the credit status alone does not tell
+    testKit.method(PriceEntity::updateSubscriberMarkup).invoke(new PriceEntity.SubscriberMarkupUpdate("client-1", 0.0003));
+    var second = testKit.method(PriceEntity::priceRateTick)
+        .invoke(new PriceEntity.PriceRateTick("SPOT", 1.1051, 1.1056, 2, 1700000000001L, Optional.of("rate-2"), true, List.of()));
+    assertThat(second.getNextEventOfType(PriceEvent.SubscriberSnapshotUpdated.class).subscribers())
+        .containsExactly(new SubscriberCredit("client-1", CreditStatus.OK, 0.0003));
+  }
+
+  @Test
+  public void shouldIgnoreTermsOfUnknownOrUnchangedSubscriber() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+    var update = new PriceEntity.SubscriberTermsUpdate("client-1", CreditStatus.OK, 0.0);
+
+    assertThat(testKit.method(PriceEntity::updateSubscriberTerms).invoke(update).getAllEvents()).hasSize(1);
+    assertThat(testKit.method(PriceEntity::updateSubscriberTerms).invoke(update).getAllEvents()).isEmpty();
+    var unknown = new PriceEntity.SubscriberTermsUpdate("client-2", CreditStatus.OK, 0.0);
+    assertThat(testKit.method(PriceEntity::updateSubscriberTerms).invoke(unknown).getAllEvents()).isEmpty();
+
+    testKit.method(PriceEntity::unsubscribe).invoke("client-1");
+    assertThat(testKit.getState().subscriberTerms()).isEmpty();
+  }
+
+  @Test
+  public void shouldReapplyMarkupKeepingCreditStatus() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+    testKit.method(PriceEntity::updateSubscriberTerms).invoke(new PriceEntity.SubscriberTermsUpdate("client-1", CreditStatus.FAIL, 0.0002));
+
+    var markup = new PriceEntity.SubscriberMarkupUpdate("client-1", 0.0003);
+    var event = testKit.method(PriceEntity::updateSubscriberMarkup).invoke(markup)
+        .getNextEventOfType(PriceEvent.SubscriberTermsUpdated.class);
+
+    assertThat(event.terms()).isEqualTo(new SubscriberTerms(CreditStatus.FAIL, 0.0003));
+    assertThat(testKit.method(PriceEntity::updateSubscriberMarkup).invoke(markup).getAllEvents()).isEmpty();
+    assertThat(testKit.method(PriceEntity::updateSubscriberMarkup).invoke(new PriceEntity.SubscriberMarkupUpdate("client-2", 0.0003)).getAllEvents()).isEmpty();
+  }
+
   @Test
   public void shouldIgnoreRateUpdateWithNoSubscriptions() {
     var testKit = EventSourcedTestKit.of(PriceEntity::new);
@@ -179,10 +289,78 @@ public class PriceEntityTest {
     testKit.method(PriceEntity::subscribe).invoke("client-1");
 
     var quotas = List.of(new PriceRateClientQuota("q1", "client-1", CreditStatus.OK));
-    var update = new PriceEntity.PriceRateUpdate("SPOT", 1.1050, 1.1055, 1, 1700000000000L, quotas, java.util.Optional.of("my-rate-id"));
+    var update = new PriceEntity.PriceRateUpdate("SPOT", 1.1050, 1.1055, 1, 1700000000000L, quotas, Optional.of("my-rate-id"));
     var result = testKit.method(PriceEntity::priceRateUpdate).invoke(update);
 
     var event = result.getNextEventOfType(PriceEvent.PriceRateAdded.class);
     assertThat(event.priceRate().priceRateId()).isEqualTo("my-rate-id");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldPersistSnapshotAndCompactRateOnFirstCompactUpdate() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+
+    var quotas = List.of(new PriceRateClientQuota("", "client-1", CreditStatus.OK));
+    var update = new PriceEntity.PriceRateUpdate("SPOT", 1.1050, 1.1055, 1, 1700000000000L, quotas, Optional.of("rate-1"), true);
+    var result = testKit.method(PriceEntity::priceRateUpdate).invoke(update);
+
+    assertThat(result.getAllEvents()).hasSize(2);
+    var snapshot = result.getNextEventOfType(PriceEvent.SubscriberSnapshotUpdated.class);
+    assertThat(snapshot.version()).isEqualTo(1);
+    assertThat(snapshot.subscribers()).containsExactly(new SubscriberCredit("client-1", CreditStatus.OK));
+    var rate = result.getNextEventOfType(PriceEvent.CompactPriceRateAdded.class);
+    assertThat(rate.snapshotId()).isEqualTo(snapshot.snapshotId());
+    assertThat(rate.priceRate().priceRateId()).isEqualTo("rate-1");
+    assertThat(testKit.getState().lastPriceRate()).isPresent();
+  }
+
+  @Test
+  public void shouldReuseSnapshotWhenSubscribersUnchanged() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+
+    var quotas = List.of(new PriceRateClientQuota("", "client-1", CreditStatus.OK));
+    testKit.method(PriceEntity::priceRateUpdate)
+        .invoke(new PriceEntity.PriceRateUpdate("SPOT", 1.1050, 1.1055, 1, 1700000000000L, quotas, Optional.empty(), true));
+
+    var result = testKit.method(PriceEntity::priceRateUpdate)
+        .invoke(new PriceEntity.PriceRateUpdate("SPOT", 1.1060, 1.1065, 2, 1700000001000L, quotas, Optional.empty(), true));
+
+    assertThat(result.getAllEvents()).hasSize(1);
+    var rate = result.getNextEventOfType(PriceEvent.CompactPriceRateAdded.class);
+    assertThat(rate.snapshotId()).isEqualTo(testKit.getState().subscriberSnapshot().get().snapshotId());
+  }
+
+  @Test
+  public void shouldCreateNewSnapshotWhenCreditChanges() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    testKit.method(PriceEntity::subscribe).invoke("client-1");
+
+    testKit.method(PriceEntity::priceRateUpdate)
+        .invoke(new PriceEntity.PriceRateUpdate("SPOT", 1.1050, 1.1055, 1, 1700000000000L,
+            List.of(new PriceRateClientQuota("", "client-1", CreditStatus.OK)), Optional.empty(), true));
+
+    var result = testKit.method(PriceEntity::priceRateUpdate)
+        .invoke(new PriceEntity.PriceRateUpdate("SPOT", 1.1060, 1.1065, 2, 1700000001000L,
+            List.of(new PriceRateClientQuota("", "client-1", CreditStatus.FAIL)), Optional.empty(), true));
+
+    assertThat(result.getAllEvents()).hasSize(2);
+    var snapshot = result.getNextEventOfType(PriceEvent.SubscriberSnapshotUpdated.class);
+    assertThat(snapshot.version()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldCheckpointPriceRateOnce() {
+    var testKit = EventSourcedTestKit.of(PriceEntity::new);
+    var priceRate = new PriceRate("rate-1", "SPOT", 1.1050, 1.1055, 1, 1700000000000L);
+
+    var result = testKit.method(PriceEntity::checkpointPriceRate).invoke(priceRate);
+    var event = result.getNextEventOfType(PriceEvent.PriceRateCheckpointed.class);
+    assertThat(event.priceRate()).isEqualTo(priceRate);
+    assertThat(testKit.getState().lastPriceRate()).contains(priceRate);
+
+    var again = testKit.method(PriceEntity::checkpointPriceRate).invoke(priceRate);
+    assertThat(again.getAllEvents()).isEmpty();
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.application;
+
+import com.example.domain.PublishPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceRateThrottleTest {
+
+  private final PriceRateThrottle throttle = new PriceRateThrottle(
+      new PublishPolicy(0.5, Duration.ofMillis(100), Duration.ofSeconds(1)), Map.of());
+
+  private static PriceRateThrottle.Tick tick(double bid, double ask, long seq) {
+    return new PriceRateThrottle.Tick("EURUSD", "SPOT", bid, ask, seq, 1700000000000L + seq, Optional.empty());
+  }
+
+  @Test
+  public void shouldPublishLatestHeldBackTickOnceAllowed() {
+    assertThat(throttle.tryPublish(tick(1.10000, 1.10010, 1), 1_000)).isTrue();
+    assertThat(throttle.tryPublish(tick(1.10100, 1.10110, 2), 1_020)).isFalse();
+    assertThat(throttle.tryPublish(tick(1.10200, 1.10210, 3), 1_040)).isFalse();
+
+    assertThat(throttle.takeDue(1_050)).isEmpty();
+    assertThat(throttle.takeDue(1_100)).extracting(PriceRateThrottle.Tick::seq).containsExactly(3L);
+    assertThat(throttle.takeDue(1_200)).isEmpty();
+    assertThat(throttle.stats()).isEqualTo(new PriceRateThrottle.Stats(2, 2, 1, 1));
+  }
+
+  @Test
+  public void shouldRefreshSmallMoveWithoutAFurtherTick() {
+    throttle.tryPublish(tick(1.10000, 1.10010, 1), 1_000);
+    assertThat(throttle.tryPublish(tick(1.10001, 1.10011, 2), 1_200)).isFalse();
+
+    assertThat(throttle.takeDue(1_500)).isEmpty();
+    assertThat(throttle.takeDue(2_000)).extracting(PriceRateThrottle.Tick::seq).containsExactly(2L);
+  }
+
+  @Test
+  public void shouldDropHeldBackTickThatMovedBackToThePublishedPrice() {
+    throttle.tryPublish(tick(1.10000, 1.10010, 1), 1_000);
+    throttle.tryPublish(tick(1.10000, 1.10010, 2), 1_200);
+
+    assertThat(throttle.takeDue(5_000)).isEmpty();
+  }
+
+  @Test
+  public void shouldMeasureTheNextTickAgainstTheTrailingPublish() {
+    throttle.tryPublish(tick(1.10000, 1.10010, 1), 1_000);
+    throttle.tryPublish(tick(1.10100, 1.10110, 2), 1_020);
+    throttle.takeDue(1_100);
+
+    assertThat(throttle.tryPublish(tick(1.10300, 1.10310, 3), 1_150)).isFalse();
+    assertThat(throttle.tryPublish(tick(1.10300, 1.10310, 4), 1_200)).isTrue();
+  }
+
+  @Test
+  public void shouldPublishEveryTickWhenDisabled() {
+    var disabled = new PriceRateThrottle(false, new PublishPolicy(0.5, Duration.ofMillis(100), Duration.ofSeconds(1)), Map.of());
+
+    assertThat(disabled.tryPublish(tick(1.10000, 1.10010, 1), 1_000)).isTrue();
+    assertThat(disabled.tryPublish(tick(1.10000, 1.10010, 2), 1_001)).isTrue();
+    assertThat(disabled.takeDue(5_000)).isEmpty();
+    assertThat(disabled.stats()).isEqualTo(new PriceRateThrottle.Stats(2, 0, 0, 0));
+  }
+}
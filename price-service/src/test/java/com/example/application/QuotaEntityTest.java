@@ -5,11 +5,14 @@ import akka.javasdk.testkit.KeyValueEntityTestKit;
 import com.example.domain.CreditStatus;
 import com.example.domain.PriceRate;
 import com.example.domain.PriceRateClientQuota;
+import com.example.domain.SubscriberCredit;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 public class QuotaEntityTest {
 
@@ -109,4 +112,65 @@ public class QuotaEntityTest {
     assertThat(result.getReply().get().bid()).isEqualTo(1.2000);
     assertThat(result.getReply().get().creditStatus()).isEqualTo(CreditStatus.FAIL);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldLookupCompactQuotaWithDerivedQuotaId() {
+    var testKit = KeyValueEntityTestKit.of("rate-1", QuotaEntity::new);
+    var priceRate = new PriceRate("rate-1", "SPOT", 1.1050, 1.1055, 1, 1700000000000L);
+    testKit.method(QuotaEntity::add)
+        .invoke(new QuotaEntity.AddCommand("EURUSD", priceRate, List.of(), Optional.of("EURUSD-1")));
+
+    var result = testKit.method(QuotaEntity::lookup).invoke("client-1");
+
+    var lookup = result.getReply();
+    assertThat(lookup.snapshotId()).contains("EURUSD-1");
+    assertThat(lookup.quota()).isPresent();
+    assertThat(lookup.quota().get().quotaId()).isEqualTo(PriceRateClientQuota.quotaId("rate-1", "client-1"));
+    assertThat(lookup.quota().get().bid()).isEqualTo(1.1050);
+  }
+
+  @Test
+  public void shouldCompleteCompactQuotaWithTheClientsTermsInTheSnapshot() {
+    var testKit = KeyValueEntityTestKit.of("rate-1", QuotaEntity::new);
+    var priceRate = new PriceRate("rate-1", "SPOT", 1.1050, 1.1055, 1, 1700000000000L);
+    testKit.method(QuotaEntity::add)
+        .invoke(new QuotaEntity.AddCommand("EURUSD", priceRate, List.of(), Optional.of("EURUSD-1")));
+
+    var lookup = testKit.method(QuotaEntity::lookup).invoke("client-1").getReply();
+    var quota = lookup.withTerms(Optional.of(new SubscriberCredit("client-1", CreditStatus.OK, 0.0002)));
+
+    assertThat(quota).isPresent();
+    assertThat(quota.get().creditStatus()).isEqualTo(CreditStatus.OK);
+    assertThat(quota.get().bid()).isCloseTo(1.1048, within(1e-9));
+    assertThat(quota.get().ask()).isCloseTo(1.1057, within(1e-9));
+    assertThat(lookup.withTerms(Optional.empty())).isEmpty();
+  }
+
+  @Test
+  public void shouldNotReturnExpiredQuota() {
+    var testKit = KeyValueEntityTestKit.of("rate-1", QuotaEntity::new);
+    var priceRate = new PriceRate("rate-1", "SPOT", 1.1050, 1.1055, 1, 1700000000000L);
+    var quotas = List.of(new PriceRateClientQuota("q1", "client-1", CreditStatus.OK));
+    testKit.method(QuotaEntity::add)
+        .invoke(new QuotaEntity.AddCommand("EURUSD", priceRate, quotas, Optional.empty(), System.currentTimeMillis() - 1));
+
+    assertThat(testKit.method(QuotaEntity::get).invoke("client-1").getReply()).isEmpty();
+    assertThat(testKit.method(QuotaEntity::lookup).invoke("client-1").getReply().quota()).isEmpty();
+  }
+
+  @Test
+  public void shouldLookUpQuotasOfTheCurrentStateAfterAnUpdate() {
+    var testKit = KeyValueEntityTestKit.of("rate-1", QuotaEntity::new);
+    var priceRate = new PriceRate("rate-1", "SPOT", 1.1050, 1.1055, 1, 1700000000000L);
+    testKit.method(QuotaEntity::add)
+        .invoke(new QuotaEntity.AddCommand("EURUSD", priceRate, List.of(new PriceRateClientQuota("q1", "client-1", CreditStatus.OK))));
+    assertThat(testKit.method(QuotaEntity::get).invoke("client-1").getReply()).isPresent();
+
+    testKit.method(QuotaEntity::add)
+        .invoke(new QuotaEntity.AddCommand("EURUSD", priceRate, List.of(new PriceRateClientQuota("q2", "client-2", CreditStatus.OK))));
+
+    assertThat(testKit.getState().quotas()).extracting(PriceRateClientQuota::clientId).containsExactly("client-2");
+    assertThat(testKit.method(QuotaEntity::get).invoke("client-1").getReply()).isEmpty();
+    assertThat(testKit.method(QuotaEntity::get).invoke("client-2").getReply().map(q -> q.quotaId())).contains("q2");
+  }
+}
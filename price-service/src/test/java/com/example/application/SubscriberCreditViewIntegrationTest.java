@@ -0,0 +1,71 @@
+package com.example.application;
+
+import akka.javasdk.testkit.TestKitSupport;
+import com.example.domain.ClientWorkflowState;
+import com.example.domain.CreditStatus;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubscriberCreditViewIntegrationTest extends TestKitSupport {
+
+  @Test
+  public void shouldListCompletedSubscribersOfAPairWithTheirCredit() {
+    var clientId = "subscriber-credit-client-1";
+
+    componentClient.forWorkflow(clientId)
+        .method(ClientWorkflow::subscribeAll)
+        .invoke(new ClientWorkflow.BatchSubscription(List.of("AUDJPY", "CADJPY")));
+    awaitIdle(clientId);
+    componentClient.forWorkflow(clientId)
+        .method(ClientWorkflow::creditCheckStatus)
+        .invoke(new ClientWorkflow.CreditCheckUpdate(CreditStatus.OK));
+
+    Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+      var entries = componentClient.forView()
+          .method(SubscriberCreditView::getByCcyPair)
+          .invoke("AUDJPY")
+          .entries();
+      assertThat(entries).hasSize(1);
+      assertThat(entries.getFirst().clientId()).isEqualTo(clientId);
+      assertThat(entries.getFirst().creditStatus()).isEqualTo(CreditStatus.OK);
+      assertThat(entries.getFirst().ccyPairs()).containsExactlyInAnyOrder("AUDJPY", "CADJPY");
+    });
+  }
+
+  @Test
+  public void shouldDropAnUnsubscribedPair() {
+    var clientId = "subscriber-credit-client-2";
+
+    componentClient.forWorkflow(clientId)
+        .method(ClientWorkflow::subscribeAll)
+        .invoke(new ClientWorkflow.BatchSubscription(List.of("CHFJPY", "NZDJPY")));
+    awaitIdle(clientId);
+    componentClient.forWorkflow(clientId)
+        .method(ClientWorkflow::unsubscribe)
+        .invoke("CHFJPY");
+    awaitIdle(clientId);
+
+    Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+      assertThat(componentClient.forView().method(SubscriberCreditView::getByCcyPair).invoke("CHFJPY").entries())
+          .extracting(SubscriberCreditView.SubscriberEntry::clientId)
+          .doesNotContain(clientId);
+      assertThat(componentClient.forView().method(SubscriberCreditView::getByCcyPair).invoke("NZDJPY").entries())
+          .extracting(SubscriberCreditView.SubscriberEntry::clientId)
+          .contains(clientId);
+    });
+  }
+
+  private void awaitIdle(String clientId) {
+    Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+      var state = componentClient.forWorkflow(clientId)
+          .method(ClientWorkflow::getState)
+          .invoke();
+      assertThat(state.status()).isEqualTo(ClientWorkflowState.Status.IDLE);
+    });
+  }
+}
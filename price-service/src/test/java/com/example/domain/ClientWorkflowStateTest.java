@@ -2,6 +2,7 @@ package com.example.domain;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,6 +64,70 @@ public class ClientWorkflowStateTest {
     assertThat(state.isSubscribingPair("EURUSD")).isFalse();
   }
 
+  @Test
+  public void shouldTrackPendingBatch() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withSubscriptions(List.of("EURUSD", "GBPUSD"))
+        .withPending(ClientWorkflowState.Status.SUBSCRIBING, List.of("EURUSD", "GBPUSD"));
+
+    assertThat(state.subscriptions()).containsExactlyInAnyOrder("EURUSD", "GBPUSD");
+    assertThat(state.isBusy()).isTrue();
+    assertThat(state.isSubscribingPair("EURUSD")).isTrue();
+    assertThat(state.isSubscribingPair("GBPUSD")).isTrue();
+    assertThat(state.isSubscribingPair("USDJPY")).isFalse();
+
+    state = state.withoutSubscriptions(List.of("EURUSD")).withIdle();
+    assertThat(state.subscriptions()).containsExactly("GBPUSD");
+    assertThat(state.pendingPairs()).isEmpty();
+    assertThat(state.isSubscribingPair("GBPUSD")).isFalse();
+  }
+
+  @Test
+  public void shouldDrainQueuedOperationsInOrder() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withPending(ClientWorkflowState.Status.SUBSCRIBING, "EURUSD")
+        .withQueued(ClientWorkflowState.Status.SUBSCRIBING, List.of("GBPUSD"))
+        .withQueued(ClientWorkflowState.Status.SUBSCRIBING, List.of("USDJPY", "GBPUSD"))
+        .withQueued(ClientWorkflowState.Status.UNSUBSCRIBING, List.of("EURUSD"));
+
+    assertThat(state.queued()).hasSize(2);
+
+    state = state.withNextQueued();
+    assertThat(state.status()).isEqualTo(ClientWorkflowState.Status.SUBSCRIBING);
+    assertThat(state.pendingPairs()).containsExactlyInAnyOrder("GBPUSD", "USDJPY");
+
+    state = state.withNextQueued();
+    assertThat(state.isUnsubscribingPair("EURUSD")).isTrue();
+    assertThat(state.queued()).isEmpty();
+
+    state = state.withNextQueued();
+    assertThat(state.isBusy()).isFalse();
+  }
+
+  @Test
+  public void shouldBoundTheQueue() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withPending(ClientWorkflowState.Status.SUBSCRIBING, "EURUSD");
+    for (int i = 0; i < ClientWorkflowState.MAX_QUEUED; i++) {
+      var operation = i % 2 == 0 ? ClientWorkflowState.Status.UNSUBSCRIBING : ClientWorkflowState.Status.SUBSCRIBING;
+      state = state.withQueued(operation, List.of("EURUSD"));
+    }
+
+    assertThat(state.isQueueFull()).isTrue();
+  }
+
+  @Test
+  public void shouldExcludePendingAndQueuedPairsFromActiveSubscriptions() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withSubscriptions(List.of("EURUSD", "GBPUSD", "USDJPY"))
+        .withPending(ClientWorkflowState.Status.SUBSCRIBING, List.of("GBPUSD"))
+        .withQueued(ClientWorkflowState.Status.SUBSCRIBING, List.of("USDJPY"));
+
+    assertThat(state.activeSubscriptions()).containsExactly("EURUSD");
+    assertThat(state.withNextQueued().withNextQueued().activeSubscriptions())
+        .containsExactlyInAnyOrder("EURUSD", "GBPUSD", "USDJPY");
+  }
+
   @Test
   public void shouldTransitionToIdle() {
     var state = ClientWorkflowState.initial("client-1")
@@ -111,4 +176,60 @@ public class ClientWorkflowStateTest {
     assertThat(original.subscriptions()).isEmpty();
     assertThat(updated.subscriptions()).containsExactly("EURUSD");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldRollBackPendingSubscriptions() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withSubscription("USDJPY")
+        .withSubscriptions(List.of("EURUSD", "GBPUSD"))
+        .withPending(ClientWorkflowState.Status.SUBSCRIBING, List.of("EURUSD", "GBPUSD"))
+        .withPendingRolledBack();
+
+    assertThat(state.subscriptions()).containsExactly("USDJPY");
+  }
+
+  @Test
+  public void shouldRollBackAPendingUnsubscribe() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withSubscription("USDJPY")
+        .withPending(ClientWorkflowState.Status.UNSUBSCRIBING, List.of("EURUSD", "GBPUSD"))
+        .withPendingRolledBack();
+
+    assertThat(state.subscriptions()).containsExactlyInAnyOrder("USDJPY", "EURUSD", "GBPUSD");
+    assertThat(state.withNextQueued().activeSubscriptions()).containsExactlyInAnyOrder("USDJPY", "EURUSD", "GBPUSD");
+  }
+
+  @Test
+  public void shouldLeavePairsChangedByAQueuedOperationToIt() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withPending(ClientWorkflowState.Status.UNSUBSCRIBING, List.of("EURUSD", "GBPUSD"))
+        .withQueued(ClientWorkflowState.Status.SUBSCRIBING, List.of("GBPUSD"))
+        .withSubscription("GBPUSD")
+        .withQueued(ClientWorkflowState.Status.UNSUBSCRIBING, List.of("GBPUSD"))
+        .withoutSubscription("GBPUSD")
+        .withPendingRolledBack();
+
+    assertThat(state.subscriptions()).containsExactly("EURUSD");
+  }
+
+  @Test
+  public void shouldNotRollBackWhenIdle() {
+    var state = ClientWorkflowState.initial("client-1").withSubscription("EURUSD");
+
+    assertThat(state.withPendingRolledBack()).isSameAs(state);
+  }
+
+  @Test
+  public void shouldNotActivateTheSubscriptionsOfAFailedSubscribe() {
+    var state = ClientWorkflowState.initial("client-1")
+        .withSubscriptions(List.of("EURUSD", "GBPUSD"))
+        .withPending(ClientWorkflowState.Status.SUBSCRIBING, List.of("EURUSD", "GBPUSD"))
+        .withQueued(ClientWorkflowState.Status.SUBSCRIBING, List.of("USDJPY"))
+        .withSubscription("USDJPY");
+
+    var failedOver = state.withPendingRolledBack().withNextQueued();
+
+    assertThat(failedOver.activeSubscriptions()).isEmpty();
+    assertThat(failedOver.withNextQueued().activeSubscriptions()).containsExactly("USDJPY");
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class ForwardCurveTest {
+
+  @Test
+  public void shouldPriceAllTenorsOffSpot() {
+    var curve = new ForwardCurve("EURUSD", List.of("1W", "1M"), new double[]{2.0, 10.0}, new double[]{2.5, 11.0});
+
+    var rates = curve.price(1.1000, 1.1002);
+
+    assertThat(rates).extracting(TenorRate::tenor).containsExactly("1W", "1M");
+    assertThat(rates.get(0).bid()).isCloseTo(1.1002, within(1e-9));
+    assertThat(rates.get(0).ask()).isCloseTo(1.10045, within(1e-9));
+    assertThat(rates.get(1).bid()).isCloseTo(1.1010, within(1e-9));
+    assertThat(rates.get(1).ask()).isCloseTo(1.1013, within(1e-9));
+  }
+
+  @Test
+  public void shouldUseJpyPipSize() {
+    var curve = new ForwardCurve("USDJPY", List.of("1M"), new double[]{-30.0}, new double[]{-29.0});
+
+    var bids = new double[1];
+    var asks = new double[1];
+    curve.price(150.00, 150.02, bids, asks);
+
+    assertThat(bids[0]).isCloseTo(149.70, within(1e-9));
+    assertThat(asks[0]).isCloseTo(149.73, within(1e-9));
+  }
+
+  @Test
+  public void shouldRejectPointsNotMatchingTenors() {
+    assertThatThrownBy(() -> new ForwardCurve("EURUSD", List.of("1W", "1M"), new double[]{2.0}, new double[]{2.5}))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashTrieMapTest {
+
+  @Test
+  public void shouldBehaveLikeHashMapUnderRandomUpdates() {
+    var random = new Random(42);
+    var expected = new HashMap<Integer, Integer>();
+    HashTrieMap<Integer, Integer> trie = HashTrieMap.empty();
+    for (int i = 0; i < 20_000; i++) {
+      var key = random.nextInt(2_000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        trie = trie.minus(key);
+      } else {
+        expected.put(key, i);
+        trie = trie.plus(key, i);
+      }
+    }
+    assertThat(trie).isEqualTo(expected);
+    assertThat(trie.size()).isEqualTo(expected.size());
+    assertThat(trie.entrySet()).hasSize(expected.size());
+  }
+
+  @Test
+  public void shouldKeepEarlierVersionsUnchanged() {
+    HashTrieMap<String, Integer> v1 = HashTrieMap.<String, Integer>empty().plus("a", 1).plus("b", 2);
+    var v2 = v1.plus("c", 3).minus("a");
+    var v3 = v2.plus("b", 20);
+
+    assertThat(v1).containsOnlyKeys("a", "b").containsEntry("b", 2);
+    assertThat(v2).containsOnlyKeys("b", "c").containsEntry("b", 2);
+    assertThat(v3).containsOnlyKeys("b", "c").containsEntry("b", 20);
+  }
+
+  @Test
+  public void shouldHandleKeysWithEqualHashCodes() {
+    // "Aa" and "BB" share a hash code
+    HashTrieMap<String, Integer> trie = HashTrieMap.<String, Integer>empty().plus("Aa", 1).plus("BB", 2).plus("C", 3);
+
+    assertThat(trie).hasSize(3).containsEntry("Aa", 1).containsEntry("BB", 2);
+    var withoutAa = trie.minus("Aa");
+    assertThat(withoutAa).hasSize(2).containsEntry("BB", 2).doesNotContainKey("Aa");
+    assertThat(withoutAa.minus("BB").minus("C")).isEmpty();
+    assertThat(trie).hasSize(3);
+  }
+
+  @Test
+  public void shouldReturnSameInstanceWhenNothingChanges() {
+    HashTrieMap<String, Integer> trie = HashTrieMap.<String, Integer>empty().plus("a", 1);
+
+    assertThat(trie.plus("a", 1)).isSameAs(trie);
+    assertThat(trie.minus("b")).isSameAs(trie);
+  }
+}
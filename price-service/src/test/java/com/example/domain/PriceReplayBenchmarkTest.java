@@ -0,0 +1,52 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays 100k subscribe/unsubscribe events into {@link Price} the same way PriceEntity.applyEvent does,
+ * to keep an eye on recovery time for pairs with very large subscriber counts. Only runs with {@code -Pbenchmark}.
+ */
+public class PriceReplayBenchmarkTest {
+
+  private static final int SUBSCRIBERS = 75_000;
+  private static final int UNSUBSCRIBERS = 25_000;
+
+  @Test
+  public void shouldReplay100kSubscriptionEvents() {
+    var events = new ArrayList<PriceEvent>(SUBSCRIBERS + UNSUBSCRIBERS);
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      events.add(new PriceEvent.Subscribed("client-" + i));
+    }
+    for (int i = 0; i < UNSUBSCRIBERS; i++) {
+      events.add(new PriceEvent.Unsubscribed("client-" + (i * 3)));
+    }
+
+    // warm-up run, then the measured one
+    replay(events);
+    var start = System.nanoTime();
+    var state = replay(events);
+    var elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+    System.out.printf("Replayed %d price events in %d ms%n", events.size(), elapsedMs);
+    assertThat(state.subscriptions()).hasSize(SUBSCRIBERS - UNSUBSCRIBERS);
+    assertThat(state.isSubscribed("client-1")).isTrue();
+    assertThat(state.isSubscribed("client-3")).isFalse();
+  }
+
+  private static Price replay(List<PriceEvent> events) {
+    var state = Price.empty("EURUSD");
+    for (var event : events) {
+      state = switch (event) {
+        case PriceEvent.Subscribed e -> state.withSubscription(e.clientId());
+        case PriceEvent.Unsubscribed e -> state.withoutSubscription(e.clientId());
+        default -> state;
+      };
+    }
+    return state;
+  }
+}
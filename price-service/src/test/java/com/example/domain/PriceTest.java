@@ -0,0 +1,21 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PriceTest {
+
+  @Test
+  public void shouldLeaveEarlierPriceStatesUnchanged() {
+    var empty = Price.empty("EURUSD");
+    var subscribed = empty.withSubscription("client-1").withSubscriberTerms("client-1", new SubscriberTerms(CreditStatus.OK, 0.0));
+    var unsubscribed = subscribed.withoutSubscription("client-1");
+
+    assertThat(empty.subscriptions()).isEmpty();
+    assertThat(subscribed.subscriptions()).containsExactly("client-1");
+    assertThat(subscribed.termsOf("client-1").creditStatus()).isEqualTo(CreditStatus.OK);
+    assertThat(unsubscribed.subscriptions()).isEmpty();
+    assertThat(unsubscribed.subscriberTerms()).isEmpty();
+  }
+}
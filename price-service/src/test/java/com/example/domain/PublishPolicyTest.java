@@ -0,0 +1,45 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PublishPolicyTest {
+
+  private final PublishPolicy policy = new PublishPolicy(0.5, Duration.ofMillis(100), Duration.ofSeconds(1));
+  private final PublishPolicy.Published last = new PublishPolicy.Published(1.10000, 1.10010, 1_000);
+
+  @Test
+  public void shouldPublishFirstTick() {
+    assertThat(policy.shouldPublish("EURUSD", null, 1.1, 1.1001, 1_000)).isTrue();
+  }
+
+  @Test
+  public void shouldSuppressSubThresholdMove() {
+    assertThat(policy.shouldPublish("EURUSD", last, 1.10002, 1.10012, 1_200)).isFalse();
+  }
+
+  @Test
+  public void shouldPublishMoveAboveThreshold() {
+    assertThat(policy.shouldPublish("EURUSD", last, 1.10010, 1.10020, 1_200)).isTrue();
+  }
+
+  @Test
+  public void shouldRespectMaximumRate() {
+    assertThat(policy.shouldPublish("EURUSD", last, 1.10100, 1.10110, 1_050)).isFalse();
+  }
+
+  @Test
+  public void shouldPublishSmallMoveAfterRefreshInterval() {
+    assertThat(policy.shouldPublish("EURUSD", last, 1.10001, 1.10011, 2_000)).isTrue();
+  }
+
+  @Test
+  public void shouldUseJpyPipSize() {
+    var jpyLast = new PublishPolicy.Published(150.00, 150.02, 1_000);
+    assertThat(policy.shouldPublish("USDJPY", jpyLast, 150.004, 150.024, 1_200)).isFalse();
+    assertThat(policy.shouldPublish("USDJPY", jpyLast, 150.006, 150.026, 1_200)).isTrue();
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Marks up 10k ticks for 10k subscribers through a {@link SpreadTable}, the per-tick work of quota generation
+ * with client spreads, to keep an eye on its cost for pairs with very large subscriber counts. Only runs with
+ * {@code -Pbenchmark}.
+ */
+public class SpreadTableBenchmarkTest {
+
+  private static final int SUBSCRIBERS = 10_000;
+  private static final int TICKS = 10_000;
+
+  @Test
+  public void shouldMarkUp10kTicksFor10kSubscribers() {
+    var table = new SpreadTable("EURUSD", 2, new double[][]{{0.1, 0.3}, {0.5, 1.0}, {1.5, 2.0}});
+    var profiles = new int[SUBSCRIBERS];
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      profiles[i] = table.profile(i % 3, i % 2);
+    }
+    var markups = new double[SUBSCRIBERS];
+
+    // warm-up run, then the measured one
+    markUp(table, profiles, markups);
+    var start = System.nanoTime();
+    var checksum = markUp(table, profiles, markups);
+    var elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+    System.out.printf("Marked up %d ticks for %d subscribers in %d ms (checksum %.4f)%n", TICKS, SUBSCRIBERS, elapsedMs, checksum);
+    assertThat(markups[0]).isCloseTo(0.1 * 0.0001, within(1e-12));
+    assertThat(markups[1]).isCloseTo(1.0 * 0.0001, within(1e-12));
+    assertThat(markups[5]).isCloseTo(2.0 * 0.0001, within(1e-12));
+  }
+
+  private static double markUp(SpreadTable table, int[] profiles, double[] markups) {
+    var checksum = 0.0;
+    for (int tick = 0; tick < TICKS; tick++) {
+      table.apply(profiles, SUBSCRIBERS, markups);
+      checksum += markups[tick % SUBSCRIBERS];
+    }
+    return checksum;
+  }
+}
@@ -3,33 +3,85 @@ package com.example;
 import akka.javasdk.DependencyProvider;
 import akka.javasdk.ServiceSetup;
 import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.HttpClientProvider;
+import akka.stream.Materializer;
+import com.example.application.LocalQuotaStore;
+import com.example.application.PublishedQuotasView;
 import com.example.client.AutoHedgerServiceClient;
 import com.example.client.AutoHedgerServiceClientStub;
+import com.example.client.BatchingPricingServiceClient;
+import com.example.client.LocalFirstPricingServiceClient;
+import com.example.client.NettingAutoHedgerServiceClient;
 import com.example.client.PricingServiceClient;
 import com.example.client.PricingServiceClientImpl;
 import com.example.client.PricingServiceClientStub;
 import com.typesafe.config.Config;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Setup
 public class Bootstrap implements ServiceSetup {
 
   private final Config config;
   private final HttpClientProvider httpClientProvider;
+  private final ComponentClient componentClient;
+  private final Materializer materializer;
 
-  public Bootstrap(Config config, HttpClientProvider httpClientProvider) {
+  public Bootstrap(Config config, HttpClientProvider httpClientProvider, ComponentClient componentClient, Materializer materializer) {
     this.config = config;
     this.httpClientProvider = httpClientProvider;
+    this.componentClient = componentClient;
+    this.materializer = materializer;
+  }
+
+  @Override
+  public Set<Class<?>> disabledComponents() {
+    var disabled = new HashSet<Class<?>>();
+    // the view follows the price-service service stream, which is not there in integration tests
+    if (!localQuotaStoreEnabled())
+      disabled.add(PublishedQuotasView.class);
+    return disabled;
+  }
+
+  private boolean localQuotaStoreEnabled() {
+    return !config.getBoolean("integration.test") && config.getBoolean("trade-booking-service.local-quota-store.enabled");
   }
 
   @Override
   public DependencyProvider createDependencyProvider() {
-    var autoHedgerServiceClient = new AutoHedgerServiceClientStub();
+    // trades only add to per-instrument exposure; net hedges go to the auto hedger per flush
+    var autoHedgerServiceClient = new NettingAutoHedgerServiceClient(
+        new NettingAutoHedgerServiceClient.Settings(
+            config.getBoolean("trade-booking-service.hedge-netting.enabled"),
+            config.getDuration("trade-booking-service.hedge-netting.window"),
+            config.getDouble("trade-booking-service.hedge-netting.threshold")),
+        new AutoHedgerServiceClientStub(),
+        materializer);
+    var localQuotaStore = new LocalQuotaStore(componentClient,
+        new LocalQuotaStore.Settings(
+            localQuotaStoreEnabled(),
+            config.getInt("trade-booking-service.local-quota-store.max-entries"),
+            config.getDuration("trade-booking-service.local-quota-store.ttl")),
+        materializer);
+    var singleQuotaClient = new PricingServiceClientImpl(httpClientProvider);
+    var batchingPricingServiceClient = new BatchingPricingServiceClient(httpClientProvider,
+        new BatchingPricingServiceClient.Settings(
+            !config.getBoolean("integration.test") && config.getBoolean("trade-booking-service.quota-lookup-batching.enabled"),
+            config.getDuration("trade-booking-service.quota-lookup-batching.max-wait"),
+            config.getInt("trade-booking-service.quota-lookup-batching.max-batch"),
+            config.getInt("trade-booking-service.quota-lookup-batching.parallelism"),
+            config.getInt("trade-booking-service.quota-lookup-batching.buffer-size"),
+            config.getDuration("trade-booking-service.quota-lookup-batching.timeout")),
+        singleQuotaClient,
+        materializer);
     PricingServiceClient pricingServiceClient;
     if (config.getBoolean("integration.test")) {
       pricingServiceClient = new PricingServiceClientStub();
     } else {
-      pricingServiceClient = new PricingServiceClientImpl(httpClientProvider);
+      // local store first, then a (batched) remote lookup
+      pricingServiceClient = new LocalFirstPricingServiceClient(localQuotaStore, batchingPricingServiceClient);
     }
     return new DependencyProvider() {
       @SuppressWarnings("unchecked")
@@ -41,6 +93,15 @@ public class Bootstrap implements ServiceSetup {
         if (clazz == PricingServiceClient.class) {
           return (T) pricingServiceClient;
         }
+        if (clazz == LocalQuotaStore.class) {
+          return (T) localQuotaStore;
+        }
+        if (clazz == BatchingPricingServiceClient.class) {
+          return (T) batchingPricingServiceClient;
+        }
+        if (clazz == NettingAutoHedgerServiceClient.class) {
+          return (T) autoHedgerServiceClient;
+        }
         throw new RuntimeException("No such dependency: " + clazz);
       }
     };
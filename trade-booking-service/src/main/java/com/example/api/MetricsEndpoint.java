@@ -0,0 +1,41 @@
+package com.example.api;
+
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import com.example.application.LocalQuotaStore;
+import com.example.client.BatchingPricingServiceClient;
+import com.example.client.NettingAutoHedgerServiceClient;
+
+/**
+ * Node-local counters of the in-memory stages. Values are per node, not cluster-wide.
+ */
+@HttpEndpoint("/metrics")
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
+public class MetricsEndpoint {
+
+  private final LocalQuotaStore localQuotaStore;
+  private final BatchingPricingServiceClient batchingPricingServiceClient;
+  private final NettingAutoHedgerServiceClient nettingAutoHedgerServiceClient;
+
+  public MetricsEndpoint(LocalQuotaStore localQuotaStore, BatchingPricingServiceClient batchingPricingServiceClient, NettingAutoHedgerServiceClient nettingAutoHedgerServiceClient) {
+    this.localQuotaStore = localQuotaStore;
+    this.batchingPricingServiceClient = batchingPricingServiceClient;
+    this.nettingAutoHedgerServiceClient = nettingAutoHedgerServiceClient;
+  }
+
+  @Get("/local-quota-store")
+  public LocalQuotaStore.Stats localQuotaStore() {
+    return localQuotaStore.stats();
+  }
+
+  @Get("/quota-lookup-batching")
+  public BatchingPricingServiceClient.Stats quotaLookupBatching() {
+    return batchingPricingServiceClient.stats();
+  }
+
+  @Get("/hedge-netting")
+  public NettingAutoHedgerServiceClient.Stats hedgeNetting() {
+    return nettingAutoHedgerServiceClient.stats();
+  }
+}
@@ -16,7 +16,12 @@ import com.example.domain.TradeBookingState;
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.ALL))
 public class TradeEndpoint {
 
-  public record AcceptRequest(String quotaId, String priceRateId, String clientId, String side, double quantity) {}
+  // fastPath: book the trade in a single workflow step, see TradeBookingWorkflow.AcceptQuoteCommand
+  public record AcceptRequest(String quotaId, String priceRateId, String clientId, String side, double quantity, boolean fastPath) {
+    public AcceptRequest(String quotaId, String priceRateId, String clientId, String side, double quantity) {
+      this(quotaId, priceRateId, clientId, side, quantity, false);
+    }
+  }
 
   public record TradeResponse(
       String tradeId,
@@ -49,7 +54,7 @@ public class TradeEndpoint {
     var tradeId = TradeBookingWorkflow.tradeId(request.clientId(), request.quotaId());
     componentClient.forWorkflow(tradeId)
         .method(TradeBookingWorkflow::acceptQuote)
-        .invoke(new TradeBookingWorkflow.AcceptQuoteCommand(quota, request.side(), request.quantity()));
+        .invoke(new TradeBookingWorkflow.AcceptQuoteCommand(quota, request.side(), request.quantity(), request.fastPath()));
 
     return HttpResponses.ok();
   }
@@ -0,0 +1,141 @@
+package com.example.application;
+
+import akka.javasdk.client.ComponentClient;
+import akka.stream.Materializer;
+import akka.stream.RestartSettings;
+import akka.stream.javadsl.RestartSource;
+import akka.stream.javadsl.Sink;
+import com.example.domain.Quota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local store of recently published quotas keyed by (clientId, quotaId), so accepting a quote does not
+ * need a remote call to price-service.
+ *
+ * <p>Fed from the {@link PublishedQuotasView} update stream, by quota timestamp: at node start the rows of quotas
+ * still within {@code ttl}, after a stream restart the rows from the newest one received on. Bounded to
+ * {@code maxEntries} quotas, least recently used first out, and a quota is only served for {@code ttl} after its
+ * own timestamp, however late it arrived; a miss falls back to the price-service quota lookup.
+ */
+public class LocalQuotaStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(LocalQuotaStore.class);
+
+  public record Settings(boolean enabled, int maxEntries, Duration ttl) {}
+
+  public record Stats(int size, long stored, long hits, long misses, long evictions) {}
+
+  private record Entry(Quota quota, long expiresAt) {}
+
+  private final ComponentClient componentClient;
+  private final Settings settings;
+
+  // guarded by itself; access-ordered for LRU eviction
+  private final LinkedHashMap<String, Entry> quotasByKey;
+
+  private final AtomicLong stored = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  // publishedAt of the newest view row received, where a restarted stream resumes
+  private final AtomicLong lastSeenPublishedAt = new AtomicLong();
+
+  public LocalQuotaStore(ComponentClient componentClient, Settings settings, Materializer materializer) {
+    this(componentClient, settings);
+    if (settings.enabled()) {
+      runQuotaStream(materializer);
+    }
+  }
+
+  /**
+   * A store that is only fed through {@link #put}, not from the view.
+   */
+  public LocalQuotaStore(ComponentClient componentClient, Settings settings) {
+    this.componentClient = componentClient;
+    this.settings = settings;
+    this.quotasByKey = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > settings.maxEntries()) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public boolean isEnabled() {
+    return settings.enabled();
+  }
+
+  public void put(Quota quota) {
+    if (!settings.enabled()) {
+      return;
+    }
+    var entry = new Entry(quota, quota.timestamp() + settings.ttl().toMillis());
+    synchronized (quotasByKey) {
+      quotasByKey.put(key(quota.clientId(), quota.quotaId()), entry);
+    }
+    stored.incrementAndGet();
+  }
+
+  public Optional<Quota> get(String clientId, String quotaId) {
+    if (!settings.enabled()) {
+      return Optional.empty();
+    }
+    var key = key(clientId, quotaId);
+    Entry entry;
+    synchronized (quotasByKey) {
+      entry = quotasByKey.get(key);
+      if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+        quotasByKey.remove(key);
+        evictions.incrementAndGet();
+        entry = null;
+      }
+    }
+    (entry != null ? hits : misses).incrementAndGet();
+    return Optional.ofNullable(entry).map(Entry::quota);
+  }
+
+  public Stats stats() {
+    int size;
+    synchronized (quotasByKey) {
+      size = quotasByKey.size();
+    }
+    return new Stats(size, stored.get(), hits.get(), misses.get(), evictions.get());
+  }
+
+  private void runQuotaStream(Materializer materializer) {
+    // older rows only hold quotas that are already expired
+    lastSeenPublishedAt.set(System.currentTimeMillis() - settings.ttl().toMillis());
+    RestartSource.withBackoff(
+            RestartSettings.create(Duration.ofMillis(1000), Duration.ofMillis(100), 2.4),
+            () -> {
+              var since = lastSeenPublishedAt.get();
+              logger.warn("Restart local quota store stream from {}", since);
+              // rows published at exactly since come again, put is idempotent
+              return componentClient.forView()
+                  .stream(PublishedQuotasView::streamSince)
+                  .source(since);
+            })
+        .runWith(Sink.foreach(this::store), materializer);
+  }
+
+  void store(PublishedQuotasView.QuotasEntry entry) {
+    lastSeenPublishedAt.accumulateAndGet(entry.publishedAt(), Math::max);
+    entry.quotas().forEach(q -> put(q.toQuota()));
+  }
+
+  private static String key(String clientId, String quotaId) {
+    return clientId + "/" + quotaId;
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.application;
+
+import akka.javasdk.annotations.Component;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.annotations.TypeName;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.example.domain.CreditStatus;
+import com.example.domain.Instrument;
+import com.example.domain.Quota;
+
+import java.util.List;
+
+/**
+ * Latest quotas per ccyPair as published by price-service on its {@code price-rate-quotas} service stream.
+ * The rows are not queried directly: every node follows the update stream into its {@link LocalQuotaStore}.
+ */
+@Component(id = "published-quotas-view")
+public class PublishedQuotasView extends View {
+
+  public record PublishedQuota(
+      String quotaId,
+      String priceRateId,
+      String clientId,
+      String ccyPair,
+      String tenor,
+      double bid,
+      double ask,
+      CreditStatus creditStatus,
+      long timestamp) {
+
+    public Quota toQuota() {
+      return new Quota(quotaId, priceRateId, clientId, new Instrument(ccyPair, tenor), bid, ask, creditStatus, timestamp);
+    }
+  }
+
+  // same type name as the price-service public event
+  @TypeName("quotas-published")
+  public record QuotasPublished(String ccyPair, List<PublishedQuota> quotas) {}
+
+  // publishedAt is the timestamp of the newest quota of the row
+  public record QuotasEntry(String ccyPair, List<PublishedQuota> quotas, long publishedAt) {}
+
+  @Consume.FromServiceStream(service = "price-service", id = "price-rate-quotas")
+  public static class PublishedQuotasUpdater extends TableUpdater<QuotasEntry> {
+
+    public Effect<QuotasEntry> onEvent(QuotasPublished event) {
+      var publishedAt = event.quotas().stream().mapToLong(PublishedQuota::timestamp).max().orElse(0L);
+      return effects().updateRow(new QuotasEntry(event.ccyPair(), event.quotas(), publishedAt));
+    }
+  }
+
+  @Query(value = "SELECT * FROM published_quotas WHERE publishedAt >= :since", streamUpdates = true)
+  public QueryStreamEffect<QuotasEntry> streamSince(long since) {
+    return queryStreamResult();
+  }
+}
@@ -19,7 +19,15 @@ public class TradeBookingWorkflow extends Workflow<TradeBookingState> {
 
   private static final Logger logger = LoggerFactory.getLogger(TradeBookingWorkflow.class);
 
-  public record AcceptQuoteCommand(Quota quota, String side, double quantity) {}
+  /**
+   * {@code fastPath}: book in a single step (credit check and hedge submission) with one terminal state write,
+   * instead of persisting after the pre-trade check and again after the hedge.
+   */
+  public record AcceptQuoteCommand(Quota quota, String side, double quantity, boolean fastPath) {
+    public AcceptQuoteCommand(Quota quota, String side, double quantity) {
+      this(quota, side, quantity, false);
+    }
+  }
 
   public static String tradeId(String clientId, String quotaId) {
     return clientId + "_" + quotaId;
@@ -51,8 +59,15 @@ public class TradeBookingWorkflow extends Workflow<TradeBookingState> {
       return effects().reply(currentState().tradeId());
     }
     var tradeId = commandContext().workflowId();
+    var initial = TradeBookingState.initial(tradeId, command.quota(), command.side(), command.quantity());
+    if (command.fastPath()) {
+      return effects()
+          .updateState(initial)
+          .transitionTo(TradeBookingWorkflow::bookTradeStep)
+          .thenReply(tradeId);
+    }
     return effects()
-        .updateState(TradeBookingState.initial(tradeId, command.quota(), command.side(), command.quantity()))
+        .updateState(initial)
         .transitionTo(TradeBookingWorkflow::preTradeCheckStep)
         .thenReply(tradeId);
   }
@@ -111,6 +126,38 @@ public class TradeBookingWorkflow extends Workflow<TradeBookingState> {
         .thenEnd();
   }
 
+  // fast path: the credit check only reads the quota, so check and hedge fit one step and one state write
+  @StepName("book-trade")
+  private StepEffect bookTradeStep() {
+    var state = currentState();
+    var quota = state.quota();
+    logger.info("Booking trade {}", state.tradeId());
+
+    var result = TradeBookingState.validateCredit(quota.creditStatus());
+    var booked = state.withBooked(result);
+
+    if (booked.isRejected()) {
+      logger.info("Pre-trade check rejected for trade {}: {}", state.tradeId(), result);
+      notificationPublisher.publish(TradeNotification.rejected(state.tradeId(), quota.quotaId(), result));
+      return stepEffects()
+          .updateState(booked)
+          .thenEnd();
+    }
+
+    autoHedgerServiceClient.submit(new HedgeRequest(
+        state.tradeId(),
+        quota.instrument(),
+        state.side(),
+        state.quantity()));
+
+    notificationPublisher.publish(TradeNotification.confirmed(
+        state.tradeId(), quota.quotaId(), state.side(), state.quantity()));
+
+    return stepEffects()
+        .updateState(booked)
+        .thenEnd();
+  }
+
   @StepName("failover")
   private StepEffect failoverStep() {
     var state = currentState();
@@ -0,0 +1,151 @@
+package com.example.client;
+
+import akka.javasdk.http.HttpClient;
+import akka.javasdk.http.HttpClientProvider;
+import akka.stream.BoundedSourceQueue;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.example.domain.Quota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-batches concurrent quota lookups into one {@code POST /clients/quotas/lookup} call: lookups arriving
+ * within {@code maxWait} (or until {@code maxBatch} are collected) share a request, up to {@code parallelism}
+ * requests are in flight, and each caller gets the result for its (clientId, priceRateId) back. When the buffer is
+ * full, or the batch request failed, did not answer within {@code timeout} or had no result for the lookup, the
+ * lookup is done on its own with {@code delegate}.
+ */
+public class BatchingPricingServiceClient implements PricingServiceClient {
+
+  private static final Logger logger = LoggerFactory.getLogger(BatchingPricingServiceClient.class);
+
+  public record Settings(boolean enabled, Duration maxWait, int maxBatch, int parallelism, int bufferSize, Duration timeout) {}
+
+  public record Stats(long lookups, long batches, double averageBatchSize, long lastBatchSize, double averageWaitMs, long lastWaitMs, long failed, long inline) {}
+
+  record QuotaLookup(String clientId, String priceRateId) {}
+
+  record QuotaLookups(List<QuotaLookup> lookups) {}
+
+  record QuotaLookupResult(String clientId, String priceRateId, Optional<PricingServiceClientImpl.PriceServiceQuota> quota) {}
+
+  record QuotaLookupResults(List<QuotaLookupResult> results) {}
+
+  private record PendingLookup(QuotaLookup lookup, String quotaId, CompletableFuture<Optional<Quota>> result, long enqueuedAtNanos) {}
+
+  private final HttpClient httpClient;
+  private final Settings settings;
+  private final PricingServiceClient delegate;
+  private final BoundedSourceQueue<PendingLookup> queue;
+
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong batchedLookups = new AtomicLong();
+  private final AtomicLong lastBatchSize = new AtomicLong();
+  private final AtomicLong totalWaitMicros = new AtomicLong();
+  private final AtomicLong lastWaitMicros = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong inline = new AtomicLong();
+
+  public BatchingPricingServiceClient(HttpClientProvider httpClientProvider, Settings settings, PricingServiceClient delegate, Materializer materializer) {
+    this.httpClient = httpClientProvider.httpClientFor("price-service");
+    this.settings = settings;
+    this.delegate = delegate;
+    this.queue = settings.enabled()
+        ? Source.<PendingLookup>queue(settings.bufferSize())
+            .groupedWithin(settings.maxBatch(), settings.maxWait())
+            .mapAsyncUnordered(settings.parallelism(), this::lookupBatch)
+            .to(Sink.ignore())
+            .run(materializer)
+        : null;
+  }
+
+  @Override
+  public Optional<Quota> getQuota(String clientId, String priceRateId, String quotaId) {
+    if (!settings.enabled()) {
+      return delegate.getQuota(clientId, priceRateId, quotaId);
+    }
+    lookups.incrementAndGet();
+    var pending = new PendingLookup(new QuotaLookup(clientId, priceRateId), quotaId, new CompletableFuture<>(), System.nanoTime());
+    if (queue.offer(pending) != QueueOfferResult.enqueued()) {
+      inline.incrementAndGet();
+      return delegate.getQuota(clientId, priceRateId, quotaId);
+    }
+    try {
+      return pending.result()
+          .orTimeout(settings.timeout().toMillis(), TimeUnit.MILLISECONDS)
+          .join();
+    } catch (CompletionException e) {
+      // a failed or slow batch must not fail the trade, the quota may well be there
+      failed.incrementAndGet();
+      logger.debug("Batched lookup of quota {} failed, looking it up on its own", quotaId, e.getCause());
+      return delegate.getQuota(clientId, priceRateId, quotaId);
+    }
+  }
+
+  public Stats stats() {
+    var batchCount = batches.get();
+    return new Stats(
+        lookups.get(),
+        batchCount,
+        batchCount == 0 ? 0 : (double) batchedLookups.get() / batchCount,
+        lastBatchSize.get(),
+        batchedLookups.get() == 0 ? 0 : totalWaitMicros.get() / 1000.0 / batchedLookups.get(),
+        lastWaitMicros.get() / 1000,
+        failed.get(),
+        inline.get());
+  }
+
+  private CompletionStage<Void> lookupBatch(List<PendingLookup> batch) {
+    var sentAt = System.nanoTime();
+    batches.incrementAndGet();
+    batchedLookups.addAndGet(batch.size());
+    lastBatchSize.set(batch.size());
+    for (var pending : batch) {
+      var waitMicros = (sentAt - pending.enqueuedAtNanos()) / 1000;
+      totalWaitMicros.addAndGet(waitMicros);
+      lastWaitMicros.set(waitMicros);
+    }
+
+    var request = new QuotaLookups(batch.stream().map(PendingLookup::lookup).toList());
+    return httpClient
+        .POST("/clients/quotas/lookup")
+        .withRequestBody(request)
+        .responseBodyAs(QuotaLookupResults.class)
+        .invokeAsync()
+        .handle((response, e) -> {
+          if (e != null || !response.status().isSuccess() || response.body() == null) {
+            logger.warn("Quota batch lookup of {} failed: {}", batch.size(), e != null ? e.getMessage() : response.status());
+            var error = e != null ? e : new IllegalStateException("Quota batch lookup failed: " + response.status());
+            batch.forEach(pending -> pending.result().completeExceptionally(error));
+            return null;
+          }
+          // matched by (clientId, priceRateId), not by position
+          var quotasByLookup = new HashMap<QuotaLookup, Optional<PricingServiceClientImpl.PriceServiceQuota>>();
+          response.body().results().forEach(result ->
+              quotasByLookup.put(new QuotaLookup(result.clientId(), result.priceRateId()), result.quota()));
+          for (var pending : batch) {
+            var quota = quotasByLookup.get(pending.lookup());
+            if (quota == null) {
+              pending.result().completeExceptionally(new IllegalStateException("No result for quota lookup " + pending.lookup()));
+            } else {
+              pending.result().complete(quota.map(PricingServiceClientImpl.PriceServiceQuota::toQuota));
+            }
+          }
+          return null;
+        });
+  }
+}
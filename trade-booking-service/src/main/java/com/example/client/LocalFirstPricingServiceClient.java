@@ -0,0 +1,27 @@
+package com.example.client;
+
+import com.example.application.LocalQuotaStore;
+import com.example.domain.Quota;
+
+import java.util.Optional;
+
+/**
+ * Answers quota lookups from the node-local {@link LocalQuotaStore} and calls price-service only on a miss.
+ */
+public class LocalFirstPricingServiceClient implements PricingServiceClient {
+
+  private final LocalQuotaStore localQuotaStore;
+  private final PricingServiceClient delegate;
+
+  public LocalFirstPricingServiceClient(LocalQuotaStore localQuotaStore, PricingServiceClient delegate) {
+    this.localQuotaStore = localQuotaStore;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Optional<Quota> getQuota(String clientId, String priceRateId, String quotaId) {
+    return localQuotaStore.get(clientId, quotaId)
+        .filter(quota -> quota.priceRateId().equals(priceRateId))
+        .or(() -> delegate.getQuota(clientId, priceRateId, quotaId));
+  }
+}
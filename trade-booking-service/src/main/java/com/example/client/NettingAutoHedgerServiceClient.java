@@ -0,0 +1,154 @@
+package com.example.client;
+
+import akka.stream.Materializer;
+import akka.stream.javadsl.Source;
+import com.example.domain.Instrument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nets hedges per instrument before they reach the auto hedger: {@link #submit} only queues the trade's signed
+ * quantity (BUY positive, SELL negative) on the instrument's exposure and returns. Every {@code window}, or as soon
+ * as an instrument's open exposure reaches {@code threshold}, the queued trades are taken and submitted to
+ * {@code delegate} as one {@link HedgeRequest} per instrument; instruments that netted out to zero send nothing.
+ * A failed submit puts its trades back for the next flush.
+ *
+ * <p>Every net hedge, and every set of trades that netted out, is logged with the tradeIds it covers, so a hedge
+ * can be traced back to its trades.
+ *
+ * <p>Exposure not flushed yet is node-local and lost if the node stops; netting is off by default for that reason.
+ */
+public class NettingAutoHedgerServiceClient implements AutoHedgerServiceClient {
+
+  private static final Logger logger = LoggerFactory.getLogger(NettingAutoHedgerServiceClient.class);
+
+  public record Settings(boolean enabled, Duration window, double threshold) {}
+
+  public record Stats(long trades, long flushes, long hedges, long nettedOut, long thresholdFlushes, long failed, double openExposure) {}
+
+  private record Contribution(String tradeId, double signedQuantity) {}
+
+  private static final class Exposure {
+    private final ConcurrentLinkedQueue<Contribution> contributions = new ConcurrentLinkedQueue<>();
+    // sum of the queued contributions, for the threshold check without walking the queue
+    private final DoubleAdder open = new DoubleAdder();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+  }
+
+  private final Settings settings;
+  private final AutoHedgerServiceClient delegate;
+  private final Executor executor;
+  private final ConcurrentHashMap<Instrument, Exposure> exposures = new ConcurrentHashMap<>();
+
+  private final LongAdder trades = new LongAdder();
+  private final AtomicLong flushes = new AtomicLong();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong nettedOut = new AtomicLong();
+  private final AtomicLong thresholdFlushes = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  public NettingAutoHedgerServiceClient(Settings settings, AutoHedgerServiceClient delegate, Materializer materializer) {
+    this(settings, delegate, Executors.newVirtualThreadPerTaskExecutor());
+    if (settings.enabled()) {
+      Source.tick(settings.window(), settings.window(), "flush")
+          .runForeach(tick -> flushAll(), materializer);
+    }
+  }
+
+  NettingAutoHedgerServiceClient(Settings settings, AutoHedgerServiceClient delegate, Executor executor) {
+    this.settings = settings;
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  @Override
+  public void submit(HedgeRequest request) {
+    if (!settings.enabled()) {
+      delegate.submit(request);
+      return;
+    }
+    trades.increment();
+    var exposure = exposures.computeIfAbsent(request.instrument(), instrument -> new Exposure());
+    var signedQuantity = signed(request.side(), request.quantity());
+    exposure.contributions.add(new Contribution(request.tradeId(), signedQuantity));
+    exposure.open.add(signedQuantity);
+
+    if (Math.abs(exposure.open.sum()) >= settings.threshold()) {
+      thresholdFlushes.incrementAndGet();
+      executor.execute(() -> flush(request.instrument(), exposure));
+    }
+  }
+
+  public Stats stats() {
+    var open = exposures.values().stream().mapToDouble(exposure -> Math.abs(exposure.open.sum())).sum();
+    return new Stats(trades.sum(), flushes.get(), hedges.get(), nettedOut.get(), thresholdFlushes.get(), failed.get(), open);
+  }
+
+  void flushAll() {
+    flushes.incrementAndGet();
+    exposures.forEach((instrument, exposure) -> {
+      // skip idle instruments without a task
+      if (!exposure.contributions.isEmpty()) {
+        executor.execute(() -> flush(instrument, exposure));
+      }
+    });
+  }
+
+  private void flush(Instrument instrument, Exposure exposure) {
+    // a threshold flush and the window flush racing: one of them takes it all
+    if (!exposure.flushing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      var taken = new ArrayList<Contribution>();
+      Contribution contribution;
+      while ((contribution = exposure.contributions.poll()) != null) {
+        taken.add(contribution);
+      }
+      if (taken.isEmpty()) {
+        return;
+      }
+      var net = taken.stream().mapToDouble(Contribution::signedQuantity).sum();
+      exposure.open.add(-net);
+      var tradeIds = taken.stream().map(Contribution::tradeId).toList();
+      if (net == 0) {
+        nettedOut.addAndGet(taken.size());
+        logger.info("Trades {} on {} netted out, no hedge sent", tradeIds, instrument);
+        return;
+      }
+      var request = new HedgeRequest(
+          "net-" + instrument.ccyPair() + "-" + instrument.tenor() + "-" + UUID.randomUUID(),
+          instrument,
+          net > 0 ? "BUY" : "SELL",
+          Math.abs(net));
+      try {
+        delegate.submit(request);
+        hedges.incrementAndGet();
+        logger.info("Net hedge {} {} {} on {} covers trades {}", request.tradeId(), request.side(), request.quantity(), instrument, tradeIds);
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        exposure.contributions.addAll(taken);
+        exposure.open.add(net);
+        logger.warn("Net hedge for {} failed, keeping trades {} for the next flush", instrument, tradeIds, e);
+      }
+    } finally {
+      exposure.flushing.set(false);
+    }
+  }
+
+  private static double signed(String side, double quantity) {
+    return "SELL".equalsIgnoreCase(side) ? -quantity : quantity;
+  }
+}
@@ -39,6 +39,14 @@ public record TradeBookingState(
     return new TradeBookingState(quota, tradeId, side, quantity, preTradeResult, TradeStatus.CONFIRMED);
   }
 
+  /**
+   * Terminal state of a trade booked in one step: confirmed when the pre-trade check passed, rejected otherwise.
+   */
+  public TradeBookingState withBooked(PreTradeResult result) {
+    var newStatus = result == PreTradeResult.OK ? TradeStatus.CONFIRMED : TradeStatus.REJECTED;
+    return new TradeBookingState(quota, tradeId, side, quantity, result, newStatus);
+  }
+
   public TradeBookingState withRejected(PreTradeResult reason) {
     return new TradeBookingState(quota, tradeId, side, quantity, reason, TradeStatus.REJECTED);
   }
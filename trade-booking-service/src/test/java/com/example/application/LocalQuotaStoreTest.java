@@ -0,0 +1,88 @@
+package com.example.application;
+
+import com.example.domain.CreditStatus;
+import com.example.domain.Instrument;
+import com.example.domain.Quota;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalQuotaStoreTest {
+
+  private static LocalQuotaStore store(boolean enabled, int maxEntries, Duration ttl) {
+    return new LocalQuotaStore(null, new LocalQuotaStore.Settings(enabled, maxEntries, ttl));
+  }
+
+  private static Quota quota(String clientId, String quotaId) {
+    return quota(clientId, quotaId, System.currentTimeMillis());
+  }
+
+  private static Quota quota(String clientId, String quotaId, long timestamp) {
+    return new Quota(quotaId, "rate-1", clientId, new Instrument("EURUSD", "SPOT"), 1.1050, 1.1055, CreditStatus.OK, timestamp);
+  }
+
+  @Test
+  public void shouldServeStoredQuotaByClientAndQuotaId() {
+    var store = store(true, 10, Duration.ofMinutes(1));
+    store.put(quota("client-1", "quota-1"));
+
+    assertThat(store.get("client-1", "quota-1")).contains(quota("client-1", "quota-1"));
+    assertThat(store.get("client-2", "quota-1")).isEmpty();
+    assertThat(store.stats()).isEqualTo(new LocalQuotaStore.Stats(1, 1, 1, 1, 0));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedQuota() {
+    var store = store(true, 2, Duration.ofMinutes(1));
+    store.put(quota("client-1", "quota-1"));
+    store.put(quota("client-1", "quota-2"));
+    store.get("client-1", "quota-1");
+    store.put(quota("client-1", "quota-3"));
+
+    assertThat(store.get("client-1", "quota-2")).isEmpty();
+    assertThat(store.get("client-1", "quota-1")).isPresent();
+    assertThat(store.get("client-1", "quota-3")).isPresent();
+    assertThat(store.stats().evictions()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotServeExpiredQuota() {
+    var store = store(true, 10, Duration.ZERO);
+    store.put(quota("client-1", "quota-1"));
+
+    assertThat(store.get("client-1", "quota-1")).isEmpty();
+    assertThat(store.stats().size()).isZero();
+  }
+
+  @Test
+  public void shouldExpireFromTheQuotaTimestampNotWhenStored() {
+    var store = store(true, 10, Duration.ofSeconds(30));
+    store.put(quota("client-1", "quota-1", System.currentTimeMillis() - Duration.ofMinutes(1).toMillis()));
+    store.put(quota("client-1", "quota-2", System.currentTimeMillis() - Duration.ofSeconds(10).toMillis()));
+
+    assertThat(store.get("client-1", "quota-1")).isEmpty();
+    assertThat(store.get("client-1", "quota-2")).isPresent();
+  }
+
+  @Test
+  public void shouldStoreAllQuotasOfAViewRow() {
+    var store = store(true, 10, Duration.ofMinutes(1));
+    var now = System.currentTimeMillis();
+    var published = new PublishedQuotasView.PublishedQuota("quota-1", "rate-1", "client-1", "EURUSD", "SPOT", 1.1050, 1.1055, CreditStatus.OK, now);
+
+    store.store(new PublishedQuotasView.QuotasEntry("EURUSD", List.of(published), now));
+
+    assertThat(store.get("client-1", "quota-1")).contains(published.toQuota());
+  }
+
+  @Test
+  public void shouldStoreNothingWhenDisabled() {
+    var store = store(false, 10, Duration.ofMinutes(1));
+    store.put(quota("client-1", "quota-1"));
+
+    assertThat(store.get("client-1", "quota-1")).isEmpty();
+  }
+}
@@ -66,6 +66,44 @@ public class TradeBookingWorkflowIntegrationTest extends TestKitSupport {
     });
   }
 
+  @Test
+  public void shouldConfirmTradeInOneStepOnFastPath() {
+    var priceRateId = "pr-test-1";
+    var quoteId = "wf-test-fast-1";
+    var quota = createQuota(quoteId, priceRateId, "EURUSD", 1.1050, 1.1055, CreditStatus.OK);
+
+    componentClient.forWorkflow(tradeId(quoteId))
+        .method(TradeBookingWorkflow::acceptQuote)
+        .invoke(new TradeBookingWorkflow.AcceptQuoteCommand(quota, "BUY", 1_000_000, true));
+
+    Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+      var state = componentClient.forWorkflow(tradeId(quoteId))
+          .method(TradeBookingWorkflow::getState)
+          .invoke();
+      assertThat(state.status()).isEqualTo(TradeStatus.CONFIRMED);
+      assertThat(state.preTradeResult()).isEqualTo(PreTradeResult.OK);
+    });
+  }
+
+  @Test
+  public void shouldRejectTradeOnFastPathWithFailedCredit() {
+    var priceRateId = "pr-test-1";
+    var quoteId = "wf-test-fast-2";
+    var quota = createQuota(quoteId, priceRateId, "GBPUSD", 1.2700, 1.2705, CreditStatus.FAIL);
+
+    componentClient.forWorkflow(tradeId(quoteId))
+        .method(TradeBookingWorkflow::acceptQuote)
+        .invoke(new TradeBookingWorkflow.AcceptQuoteCommand(quota, "SELL", 500_000, true));
+
+    Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+      var state = componentClient.forWorkflow(tradeId(quoteId))
+          .method(TradeBookingWorkflow::getState)
+          .invoke();
+      assertThat(state.status()).isEqualTo(TradeStatus.REJECTED);
+      assertThat(state.preTradeResult()).isEqualTo(PreTradeResult.CREDIT_CHECK_FAILED);
+    });
+  }
+
   @Test
   public void shouldRejectTradeOnFailedCredit() {
     var priceRateId = "pr-test-1";
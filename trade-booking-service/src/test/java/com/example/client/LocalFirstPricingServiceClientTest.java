@@ -0,0 +1,54 @@
+package com.example.client;
+
+import com.example.application.LocalQuotaStore;
+import com.example.domain.CreditStatus;
+import com.example.domain.Instrument;
+import com.example.domain.Quota;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalFirstPricingServiceClientTest {
+
+  private final List<String> remoteLookups = new ArrayList<>();
+  private final PricingServiceClient remote = (clientId, priceRateId, quotaId) -> {
+    remoteLookups.add(quotaId);
+    return Optional.of(quota(priceRateId, quotaId, 1.2000));
+  };
+  private final LocalQuotaStore localQuotaStore = new LocalQuotaStore(null, new LocalQuotaStore.Settings(true, 10, Duration.ofMinutes(1)));
+  private final LocalFirstPricingServiceClient client = new LocalFirstPricingServiceClient(localQuotaStore, remote);
+
+  // quotas are served for the ttl after their timestamp
+  private static final long ISSUED_AT = System.currentTimeMillis();
+
+  private static Quota quota(String priceRateId, String quotaId, double bid) {
+    return new Quota(quotaId, priceRateId, "client-1", new Instrument("EURUSD", "SPOT"), bid, bid + 0.0005, CreditStatus.OK, ISSUED_AT);
+  }
+
+  @Test
+  public void shouldAnswerFromTheLocalStore() {
+    localQuotaStore.put(quota("rate-1", "quota-1", 1.1050));
+
+    assertThat(client.getQuota("client-1", "rate-1", "quota-1")).contains(quota("rate-1", "quota-1", 1.1050));
+    assertThat(remoteLookups).isEmpty();
+  }
+
+  @Test
+  public void shouldCallPriceServiceOnAMiss() {
+    assertThat(client.getQuota("client-1", "rate-1", "quota-1")).contains(quota("rate-1", "quota-1", 1.2000));
+    assertThat(remoteLookups).containsExactly("quota-1");
+  }
+
+  @Test
+  public void shouldCallPriceServiceWhenTheStoredQuotaIsOfAnotherRate() {
+    localQuotaStore.put(quota("rate-1", "quota-1", 1.1050));
+
+    assertThat(client.getQuota("client-1", "rate-2", "quota-1")).contains(quota("rate-2", "quota-1", 1.2000));
+    assertThat(remoteLookups).containsExactly("quota-1");
+  }
+}
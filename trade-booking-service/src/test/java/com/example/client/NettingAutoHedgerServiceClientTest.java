@@ -0,0 +1,107 @@
+package com.example.client;
+
+import com.example.domain.Instrument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class NettingAutoHedgerServiceClientTest {
+
+  private static final Instrument EURUSD = new Instrument("EURUSD", "SPOT");
+  private static final Instrument GBPUSD = new Instrument("GBPUSD", "SPOT");
+
+  private final List<HedgeRequest> sent = new ArrayList<>();
+  private final AtomicInteger failuresLeft = new AtomicInteger();
+  private final AutoHedgerServiceClient autoHedger = request -> {
+    if (failuresLeft.getAndDecrement() > 0) {
+      throw new IllegalStateException("auto hedger unavailable");
+    }
+    sent.add(request);
+  };
+
+  // flushes run on the calling thread
+  private NettingAutoHedgerServiceClient netting(boolean enabled, double threshold) {
+    return new NettingAutoHedgerServiceClient(
+        new NettingAutoHedgerServiceClient.Settings(enabled, Duration.ofMillis(100), threshold), autoHedger, Runnable::run);
+  }
+
+  private static HedgeRequest trade(String tradeId, Instrument instrument, String side, double quantity) {
+    return new HedgeRequest(tradeId, instrument, side, quantity);
+  }
+
+  @Test
+  public void shouldSendOneNetHedgePerInstrument() {
+    var netting = netting(true, 10_000_000);
+    netting.submit(trade("trade-1", EURUSD, "BUY", 1_000_000));
+    netting.submit(trade("trade-2", EURUSD, "SELL", 400_000));
+    netting.submit(trade("trade-3", GBPUSD, "SELL", 100_000));
+
+    assertThat(sent).isEmpty();
+    netting.flushAll();
+
+    assertThat(sent).extracting(HedgeRequest::instrument, HedgeRequest::side, HedgeRequest::quantity)
+        .containsExactlyInAnyOrder(
+            tuple(EURUSD, "BUY", 600_000.0),
+            tuple(GBPUSD, "SELL", 100_000.0));
+    assertThat(sent).allSatisfy(request -> assertThat(request.tradeId()).startsWith("net-" + request.instrument().ccyPair() + "-SPOT-"));
+    assertThat(netting.stats().hedges()).isEqualTo(2);
+    assertThat(netting.stats().openExposure()).isZero();
+  }
+
+  @Test
+  public void shouldSendNothingForTradesThatNetOut() {
+    var netting = netting(true, 10_000_000);
+    netting.submit(trade("trade-1", EURUSD, "BUY", 1_000_000));
+    netting.submit(trade("trade-2", EURUSD, "SELL", 1_000_000));
+
+    netting.flushAll();
+
+    assertThat(sent).isEmpty();
+    assertThat(netting.stats().nettedOut()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldFlushAnInstrumentOnceItReachesTheThreshold() {
+    var netting = netting(true, 5_000_000);
+    netting.submit(trade("trade-1", EURUSD, "BUY", 3_000_000));
+    assertThat(sent).isEmpty();
+
+    netting.submit(trade("trade-2", EURUSD, "BUY", 2_000_000));
+
+    assertThat(sent).extracting(HedgeRequest::quantity).containsExactly(5_000_000.0);
+    assertThat(netting.stats().thresholdFlushes()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldKeepTheExposureOfAFailedHedgeForTheNextFlush() {
+    var netting = netting(true, 10_000_000);
+    failuresLeft.set(1);
+    netting.submit(trade("trade-1", EURUSD, "BUY", 1_000_000));
+
+    netting.flushAll();
+    assertThat(sent).isEmpty();
+    assertThat(netting.stats().failed()).isEqualTo(1);
+    assertThat(netting.stats().openExposure()).isEqualTo(1_000_000);
+
+    netting.submit(trade("trade-2", EURUSD, "BUY", 500_000));
+    netting.flushAll();
+    assertThat(sent).extracting(HedgeRequest::side, HedgeRequest::quantity)
+        .containsExactly(tuple("BUY", 1_500_000.0));
+    assertThat(netting.stats().openExposure()).isZero();
+  }
+
+  @Test
+  public void shouldPassTradesThroughWhenDisabled() {
+    var netting = netting(false, 10_000_000);
+
+    netting.submit(trade("trade-1", EURUSD, "BUY", 1_000_000));
+
+    assertThat(sent).containsExactly(trade("trade-1", EURUSD, "BUY", 1_000_000));
+  }
+}